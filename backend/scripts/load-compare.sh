@@ -0,0 +1,45 @@
+#!/usr/bin/env bash
+# Side-by-side load comparison of the platform-thread pool and virtual-thread mode.
+#
+# Usage: scripts/load-compare.sh [concurrency] [requests] [path]
+#   defaults: 1000 concurrent clients, 20000 requests, /api/dashboard/overview
+#
+# Requires a Java 21 runtime and ApacheBench (ab) on the PATH. Both runs use the
+# same jar built with -Pjava21; only the Spring profile differs.
+set -euo pipefail
+
+CONCURRENCY="${1:-1000}"
+REQUESTS="${2:-20000}"
+TARGET_PATH="${3:-/api/dashboard/overview}"
+PORT=18080
+
+cd "$(dirname "$0")/.."
+mvn -B -q -Pjava21 -DskipTests package
+JAR="$(ls target/crypto-trading-backend-*.jar | head -n 1)"
+
+run() {
+    local label="$1"; shift
+    java -jar "$JAR" --server.port="$PORT" --logging.level.com.crypto=INFO \
+        --logging.level.org.springframework.web=INFO "$@" > "target/load-$label.log" 2>&1 &
+    local pid=$!
+    until curl -sf "http://localhost:$PORT/api/portfolio" > /dev/null; do
+        if ! kill -0 "$pid" 2> /dev/null; then
+            cat "target/load-$label.log" >&2
+            exit 1
+        fi
+        sleep 0.5
+    done
+
+    # Warm up the JIT before measuring
+    ab -q -c 50 -n 2000 "http://localhost:$PORT$TARGET_PATH" > /dev/null
+    ab -q -r -c "$CONCURRENCY" -n "$REQUESTS" "http://localhost:$PORT$TARGET_PATH" > "target/load-$label.txt"
+
+    kill "$pid"; wait "$pid" 2> /dev/null || true
+
+    echo "== $label"
+    grep -E "Requests per second|Failed requests|Time per request:.*\(mean\)" "target/load-$label.txt"
+    grep -E "^ +(50|95|99|100)%" "target/load-$label.txt"
+}
+
+run platform --spring.profiles.active=dev
+run virtual --spring.profiles.active=dev,virtual-threads
@@ -0,0 +1,59 @@
+#!/usr/bin/env bash
+# Startup benchmark: time-to-ready and RSS for the default configuration, the fast-startup
+# profile, and the fast-startup profile with an application class-data-sharing (AppCDS) archive.
+# Every run uses the dev profile the application is normally started with; fast-startup is
+# layered on top of it.
+#
+# Usage: scripts/startup-bench.sh [runs]
+#
+# Requires JDK 13+ for -XX:ArchiveClassesAtExit. The application runs from target/classes
+# plus the dependency jars rather than the fat jar, since CDS cannot archive classes loaded
+# from jars nested inside another jar. Numbers come from the "Startup ready" line logged by
+# StartupTimingListener.
+set -euo pipefail
+
+RUNS="${1:-5}"
+PORT=18081
+MAIN_CLASS=com.crypto.CryptoTradingApplication
+ARCHIVE=target/app-cds.jsa
+
+cd "$(dirname "$0")/.."
+mvn -B -q -DskipTests package dependency:build-classpath -Dmdep.includeScope=runtime \
+    -Dmdep.outputFile=target/classpath.txt
+CLASSPATH="target/classes:$(cat target/classpath.txt)"
+
+# Starts the app, waits for the ready line, prints "<ms> <rss kB>", then stops it
+start_once() {
+    local log="target/startup-run.log"
+    java "$@" -cp "$CLASSPATH" "$MAIN_CLASS" --server.port="$PORT" > "$log" 2>&1 &
+    local pid=$!
+    until grep -q "Startup ready in" "$log"; do
+        if ! kill -0 "$pid" 2> /dev/null; then
+            cat "$log" >&2
+            exit 1
+        fi
+        sleep 0.1
+    done
+    kill "$pid"; wait "$pid" 2> /dev/null || true
+    sed -nE 's/.*Startup ready in ([0-9]+) ms.*RSS ([0-9-]+) kB.*/\1 \2/p' "$log"
+}
+
+bench() {
+    local label="$1"; shift
+    local total_ms=0 total_rss=0
+    for _ in $(seq "$RUNS"); do
+        read -r ms rss < <(start_once "$@")
+        total_ms=$((total_ms + ms))
+        total_rss=$((total_rss + rss))
+    done
+    printf '%-24s ready %6d ms   RSS %7d kB   (mean of %d runs)\n' \
+        "$label" $((total_ms / RUNS)) $((total_rss / RUNS)) "$RUNS"
+}
+
+# Training run: the archive is written when the JVM exits
+rm -f "$ARCHIVE"
+start_once -XX:ArchiveClassesAtExit="$ARCHIVE" -Dspring.profiles.active=dev,fast-startup > /dev/null
+
+bench default -Dspring.profiles.active=dev
+bench fast-startup -Dspring.profiles.active=dev,fast-startup
+bench fast-startup+appcds -XX:SharedArchiveFile="$ARCHIVE" -Dspring.profiles.active=dev,fast-startup
@@ -0,0 +1,42 @@
+package com.crypto.alert;
+
+import java.time.LocalDateTime;
+
+public class AlertNotification {
+    private long alertId;
+    private String symbol;
+    private PriceAlert.Condition condition;
+    private double threshold;
+    private double price;
+    private LocalDateTime triggeredAt;
+    
+    public AlertNotification() {}
+    
+    public AlertNotification(PriceAlert alert, double price, LocalDateTime triggeredAt) {
+        this.alertId = alert.getId();
+        this.symbol = alert.getSymbol();
+        this.condition = alert.getCondition();
+        this.threshold = alert.getThreshold();
+        this.price = price;
+        this.triggeredAt = triggeredAt;
+    }
+    
+    // Getters and Setters
+    public long getAlertId() { return alertId; }
+    public void setAlertId(long alertId) { this.alertId = alertId; }
+    
+    public String getSymbol() { return symbol; }
+    public void setSymbol(String symbol) { this.symbol = symbol; }
+    
+    public PriceAlert.Condition getCondition() { return condition; }
+    public void setCondition(PriceAlert.Condition condition) { this.condition = condition; }
+    
+    public double getThreshold() { return threshold; }
+    public void setThreshold(double threshold) { this.threshold = threshold; }
+    
+    public double getPrice() { return price; }
+    public void setPrice(double price) { this.price = price; }
+    
+    public LocalDateTime getTriggeredAt() { return triggeredAt; }
+    public void setTriggeredAt(LocalDateTime triggeredAt) { this.triggeredAt = triggeredAt; }
+}
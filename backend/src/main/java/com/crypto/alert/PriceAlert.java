@@ -0,0 +1,61 @@
+package com.crypto.alert;
+
+import java.time.LocalDateTime;
+
+public class PriceAlert {
+    private long id;
+    private String symbol;
+    private Condition condition;
+    private double threshold;
+    private Integer windowMinutes;
+    private boolean rearm;
+    private LocalDateTime createdAt;
+    private volatile LocalDateTime lastTriggeredAt;
+    
+    public PriceAlert() {}
+    
+    public PriceAlert(long id, String symbol, Condition condition, double threshold,
+                      Integer windowMinutes, boolean rearm) {
+        this.id = id;
+        this.symbol = symbol;
+        this.condition = condition;
+        this.threshold = threshold;
+        this.windowMinutes = windowMinutes;
+        this.rearm = rearm;
+        this.createdAt = LocalDateTime.now();
+    }
+    
+    // Getters and Setters
+    public long getId() { return id; }
+    public void setId(long id) { this.id = id; }
+    
+    public String getSymbol() { return symbol; }
+    public void setSymbol(String symbol) { this.symbol = symbol; }
+    
+    public Condition getCondition() { return condition; }
+    public void setCondition(Condition condition) { this.condition = condition; }
+    
+    public double getThreshold() { return threshold; }
+    public void setThreshold(double threshold) { this.threshold = threshold; }
+    
+    public Integer getWindowMinutes() { return windowMinutes; }
+    public void setWindowMinutes(Integer windowMinutes) { this.windowMinutes = windowMinutes; }
+    
+    public boolean isRearm() { return rearm; }
+    public void setRearm(boolean rearm) { this.rearm = rearm; }
+    
+    public LocalDateTime getCreatedAt() { return createdAt; }
+    public void setCreatedAt(LocalDateTime createdAt) { this.createdAt = createdAt; }
+    
+    public LocalDateTime getLastTriggeredAt() { return lastTriggeredAt; }
+    public void setLastTriggeredAt(LocalDateTime lastTriggeredAt) { this.lastTriggeredAt = lastTriggeredAt; }
+    
+    public enum Condition {
+        /** Price rises to or through the threshold */
+        ABOVE,
+        /** Price falls to or through the threshold */
+        BELOW,
+        /** Price moves by at least threshold percent, either way, within the window */
+        MOVE_PERCENT
+    }
+}
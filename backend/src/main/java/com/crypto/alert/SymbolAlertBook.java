@@ -0,0 +1,184 @@
+package com.crypto.alert;
+
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * All alerts for one coin. Threshold alerts fire when a tick crosses them, so a re-arming alert
+ * fires again only after the price has gone back and crossed once more. One-shot and re-arming
+ * alerts live in separate indexes so fired one-shots are dropped as a single contiguous range.
+ */
+public class SymbolAlertBook {
+
+    public interface Listener {
+        void fired(long alertId, double price);
+    }
+
+    private static final int ONE_SHOT = 0;
+    private static final int REARM = 1;
+
+    private final ThresholdIndex[] above = {new ThresholdIndex(), new ThresholdIndex()};
+    private final ThresholdIndex[] below = {new ThresholdIndex(), new ThresholdIndex()};
+
+    // Move alerts grouped by window length in millis; threshold is the percentage move
+    private final Map<Long, ThresholdIndex[]> moves = new HashMap<>();
+    // Re-arming move alerts stay quiet for one window after firing
+    private final Map<Long, Long> quietUntilMillis = new HashMap<>();
+
+    private long[] tickTimes = new long[64];
+    private double[] tickPrices = new double[64];
+    private int tickStart;
+    private int tickCount;
+
+    private double lastPrice = Double.NaN;
+
+    /**
+     * Indexes the alert. Returns true if the last price already satisfies a threshold alert,
+     * in which case the caller should notify now; a one-shot alert is then not indexed at all.
+     */
+    public synchronized boolean add(PriceAlert alert) {
+        int kind = alert.isRearm() ? REARM : ONE_SHOT;
+        boolean alreadyMet;
+        switch (alert.getCondition()) {
+            case ABOVE:
+                alreadyMet = lastPrice >= alert.getThreshold();
+                if (!alreadyMet || alert.isRearm()) {
+                    above[kind].add(alert.getThreshold(), alert.getId());
+                }
+                return alreadyMet;
+            case BELOW:
+                alreadyMet = lastPrice <= alert.getThreshold();
+                if (!alreadyMet || alert.isRearm()) {
+                    below[kind].add(alert.getThreshold(), alert.getId());
+                }
+                return alreadyMet;
+            default:
+                ThresholdIndex[] indexes = moves.computeIfAbsent(windowMillis(alert),
+                        window -> new ThresholdIndex[] {new ThresholdIndex(), new ThresholdIndex()});
+                indexes[kind].add(alert.getThreshold(), alert.getId());
+                return false;
+        }
+    }
+
+    public synchronized boolean remove(PriceAlert alert) {
+        int kind = alert.isRearm() ? REARM : ONE_SHOT;
+        switch (alert.getCondition()) {
+            case ABOVE:
+                return above[kind].remove(alert.getThreshold(), alert.getId());
+            case BELOW:
+                return below[kind].remove(alert.getThreshold(), alert.getId());
+            default:
+                quietUntilMillis.remove(alert.getId());
+                ThresholdIndex[] indexes = moves.get(windowMillis(alert));
+                return indexes != null && indexes[kind].remove(alert.getThreshold(), alert.getId());
+        }
+    }
+
+    public synchronized void onTick(double price, long nowMillis, Listener listener) {
+        if (!Double.isNaN(lastPrice)) {
+            if (price > lastPrice) {
+                above[ONE_SHOT].visitAboveUpTo(lastPrice, price, true, (id, t) -> listener.fired(id, price));
+                above[REARM].visitAboveUpTo(lastPrice, price, false, (id, t) -> listener.fired(id, price));
+            } else if (price < lastPrice) {
+                below[ONE_SHOT].visitFromBelow(price, lastPrice, true, (id, t) -> listener.fired(id, price));
+                below[REARM].visitFromBelow(price, lastPrice, false, (id, t) -> listener.fired(id, price));
+            }
+        }
+        lastPrice = price;
+
+        recordTick(nowMillis, price);
+        for (Map.Entry<Long, ThresholdIndex[]> entry : moves.entrySet()) {
+            double reference = priceAt(nowMillis - entry.getKey());
+            double movePercent = Math.abs(price - reference) / reference * 100;
+            ThresholdIndex[] indexes = entry.getValue();
+
+            indexes[ONE_SHOT].visitAboveUpTo(Double.NEGATIVE_INFINITY, movePercent, true,
+                    (id, t) -> listener.fired(id, price));
+
+            long window = entry.getKey();
+            indexes[REARM].visitAboveUpTo(Double.NEGATIVE_INFINITY, movePercent, false, (id, t) -> {
+                Long quietUntil = quietUntilMillis.get(id);
+                if (quietUntil == null || quietUntil <= nowMillis) {
+                    quietUntilMillis.put(id, nowMillis + window);
+                    listener.fired(id, price);
+                }
+            });
+        }
+        evictTicksOlderThan(nowMillis - maxWindowMillis());
+    }
+
+    public synchronized double getLastPrice() {
+        return lastPrice;
+    }
+
+    public synchronized int size() {
+        int size = above[ONE_SHOT].size() + above[REARM].size() + below[ONE_SHOT].size() + below[REARM].size();
+        for (ThresholdIndex[] indexes : moves.values()) {
+            size += indexes[ONE_SHOT].size() + indexes[REARM].size();
+        }
+        return size;
+    }
+
+    private static long windowMillis(PriceAlert alert) {
+        return TimeUnit.MINUTES.toMillis(alert.getWindowMinutes());
+    }
+
+    private void recordTick(long time, double price) {
+        if (tickCount == tickTimes.length) {
+            long[] times = new long[tickCount * 2];
+            double[] prices = new double[tickCount * 2];
+            for (int i = 0; i < tickCount; i++) {
+                times[i] = tickTimes[(tickStart + i) % tickTimes.length];
+                prices[i] = tickPrices[(tickStart + i) % tickPrices.length];
+            }
+            tickTimes = times;
+            tickPrices = prices;
+            tickStart = 0;
+        }
+        int index = (tickStart + tickCount) % tickTimes.length;
+        tickTimes[index] = time;
+        tickPrices[index] = price;
+        tickCount++;
+    }
+
+    // Latest price at or before the given time, or the oldest one kept if history is shorter
+    private double priceAt(long time) {
+        int low = 0;
+        int high = tickCount;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (tickTimes[(tickStart + mid) % tickTimes.length] <= time) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        int offset = Math.max(0, low - 1);
+        return tickPrices[(tickStart + offset) % tickPrices.length];
+    }
+
+    // Keeps one tick at or before the cutoff so the full window always has a reference price
+    private void evictTicksOlderThan(long cutoff) {
+        while (tickCount > 1 && tickTimes[(tickStart + 1) % tickTimes.length] <= cutoff) {
+            tickStart = (tickStart + 1) % tickTimes.length;
+            tickCount--;
+        }
+    }
+
+    private long maxWindowMillis() {
+        long max = 0;
+        Iterator<Map.Entry<Long, ThresholdIndex[]>> iterator = moves.entrySet().iterator();
+        while (iterator.hasNext()) {
+            Map.Entry<Long, ThresholdIndex[]> entry = iterator.next();
+            ThresholdIndex[] indexes = entry.getValue();
+            if (indexes[ONE_SHOT].size() == 0 && indexes[REARM].size() == 0) {
+                iterator.remove();
+            } else {
+                max = Math.max(max, entry.getKey());
+            }
+        }
+        return max;
+    }
+}
@@ -0,0 +1,108 @@
+package com.crypto.alert;
+
+import java.util.Arrays;
+
+/**
+ * Alert ids sorted by threshold in parallel primitive arrays. Range lookups are a binary search
+ * plus a scan of the matches, so a tick only touches the alerts it actually crossed.
+ * Not thread-safe; {@link SymbolAlertBook} guards access.
+ */
+class ThresholdIndex {
+
+    interface Visitor {
+        void visit(long alertId, double threshold);
+    }
+
+    private double[] thresholds = new double[16];
+    private long[] alertIds = new long[16];
+    private int size;
+
+    void add(double threshold, long alertId) {
+        if (size == thresholds.length) {
+            thresholds = Arrays.copyOf(thresholds, size * 2);
+            alertIds = Arrays.copyOf(alertIds, size * 2);
+        }
+        int index = upperBound(threshold);
+        System.arraycopy(thresholds, index, thresholds, index + 1, size - index);
+        System.arraycopy(alertIds, index, alertIds, index + 1, size - index);
+        thresholds[index] = threshold;
+        alertIds[index] = alertId;
+        size++;
+    }
+
+    boolean remove(double threshold, long alertId) {
+        for (int i = lowerBound(threshold); i < size && thresholds[i] == threshold; i++) {
+            if (alertIds[i] == alertId) {
+                removeRange(i, i + 1);
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Visits alerts with {@code low < threshold <= high}, optionally removing them afterwards.
+     */
+    void visitAboveUpTo(double low, double high, boolean remove, Visitor visitor) {
+        visitRange(upperBound(low), upperBound(high), remove, visitor);
+    }
+
+    /**
+     * Visits alerts with {@code low <= threshold < high}, optionally removing them afterwards.
+     */
+    void visitFromBelow(double low, double high, boolean remove, Visitor visitor) {
+        visitRange(lowerBound(low), lowerBound(high), remove, visitor);
+    }
+
+    int size() {
+        return size;
+    }
+
+    private void visitRange(int from, int to, boolean remove, Visitor visitor) {
+        if (from >= to) {
+            return;
+        }
+        for (int i = from; i < to; i++) {
+            visitor.visit(alertIds[i], thresholds[i]);
+        }
+        if (remove) {
+            removeRange(from, to);
+        }
+    }
+
+    private void removeRange(int from, int to) {
+        System.arraycopy(thresholds, to, thresholds, from, size - to);
+        System.arraycopy(alertIds, to, alertIds, from, size - to);
+        size -= to - from;
+    }
+
+    // First index whose threshold is >= value
+    private int lowerBound(double value) {
+        int low = 0;
+        int high = size;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (thresholds[mid] < value) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    // First index whose threshold is > value
+    private int upperBound(double value) {
+        int low = 0;
+        int high = size;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (thresholds[mid] <= value) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+}
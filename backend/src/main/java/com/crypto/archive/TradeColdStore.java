@@ -0,0 +1,185 @@
+package com.crypto.archive;
+
+import com.crypto.model.Trade;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Directory of immutable {@link TradeSegment} files. Only segment headers are kept in memory;
+ * lookups skip segments by their id range, creation-time range or symbol dictionary and decode
+ * the rest. Appends are serialized by the caller; reads may run concurrently with them.
+ */
+public class TradeColdStore {
+
+    private static final String SUFFIX = ".seg";
+
+    private final Path directory;
+
+    // Ordered by lowest id; ranges can overlap when an old trade settles after newer ones were archived
+    private final List<TradeSegment> segments = new CopyOnWriteArrayList<>();
+
+    public TradeColdStore(Path directory, boolean reset) throws IOException {
+        this.directory = directory;
+        Files.createDirectories(directory);
+        List<TradeSegment> existing = new ArrayList<>();
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, "*" + SUFFIX)) {
+            for (Path file : files) {
+                if (reset) {
+                    Files.delete(file);
+                } else {
+                    existing.add(TradeSegment.open(file));
+                }
+            }
+        }
+        existing.sort(Comparator.comparingLong(TradeSegment::getMinId));
+        segments.addAll(existing);
+    }
+
+    /**
+     * Writes the trades as one new segment. The file is complete on disk before it becomes
+     * visible to readers, so a crash never leaves a partial segment behind.
+     */
+    public TradeSegment append(List<Trade> trades) throws IOException {
+        long minId = Long.MAX_VALUE;
+        long maxId = Long.MIN_VALUE;
+        for (Trade trade : trades) {
+            minId = Math.min(minId, trade.getId());
+            maxId = Math.max(maxId, trade.getId());
+        }
+        Path file = directory.resolve(String.format("trades-%019d-%019d%s", minId, maxId, SUFFIX));
+        Path temporary = directory.resolve(file.getFileName() + ".tmp");
+        try (OutputStream out = Files.newOutputStream(temporary)) {
+            TradeSegment.write(trades, out);
+        }
+        Files.move(temporary, file, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+
+        TradeSegment segment = TradeSegment.open(file);
+        segments.add(segment);
+        segments.sort(Comparator.comparingLong(TradeSegment::getMinId));
+        return segment;
+    }
+
+    /**
+     * Ids of archived trades between minId and maxId inclusive. Each overlapping segment's id
+     * column is decoded once, however many ids of the range are asked about afterwards.
+     */
+    public Set<Long> findIds(long minId, long maxId) throws IOException {
+        Set<Long> ids = new HashSet<>();
+        for (TradeSegment segment : segments) {
+            if (segment.getMaxId() < minId || segment.getMinId() > maxId) {
+                continue;
+            }
+            for (long id : segment.readIds()) {
+                if (id >= minId && id <= maxId) {
+                    ids.add(id);
+                }
+            }
+        }
+        return ids;
+    }
+
+    public Optional<Trade> findById(long id) throws IOException {
+        for (TradeSegment segment : segments) {
+            int row = segment.findRow(id);
+            if (row >= 0) {
+                return Optional.of(segment.read(new int[] {row}).get(0));
+            }
+        }
+        return Optional.empty();
+    }
+
+    public List<Trade> findBySymbol(String symbol) throws IOException {
+        List<Trade> trades = new ArrayList<>();
+        for (TradeSegment segment : segments) {
+            if (segment.symbolIndex(symbol) >= 0) {
+                trades.addAll(segment.read(segment.findRows(symbol)));
+            }
+        }
+        return trades;
+    }
+
+    public List<Trade> findAll() throws IOException {
+        List<Trade> trades = new ArrayList<>();
+        for (TradeSegment segment : segments) {
+            trades.addAll(segment.readAll());
+        }
+        return trades;
+    }
+
+    /**
+     * The {@code limit} most recently created archived trades, newest first. Segments are
+     * visited newest first and the scan stops once no remaining segment can hold a newer trade.
+     */
+    public List<Trade> findLatest(int limit) throws IOException {
+        if (limit <= 0) {
+            return new ArrayList<>();
+        }
+        List<TradeSegment> newestFirst = new ArrayList<>(segments);
+        newestFirst.sort(Comparator.comparing(TradeSegment::getMaxCreatedAt).reversed());
+
+        List<Trade> trades = new ArrayList<>();
+        for (TradeSegment segment : newestFirst) {
+            if (trades.size() >= limit
+                    && segment.getMaxCreatedAt().isBefore(trades.get(limit - 1).getCreatedAt())) {
+                break;
+            }
+            trades.addAll(segment.readAll());
+            trades.sort(Comparator.comparing(Trade::getCreatedAt).reversed());
+        }
+        return trades.size() > limit ? new ArrayList<>(trades.subList(0, limit)) : trades;
+    }
+
+    /**
+     * Creation time of the newest archived trade, or null while the store is empty.
+     */
+    public LocalDateTime getNewestCreatedAt() {
+        LocalDateTime newest = null;
+        for (TradeSegment segment : segments) {
+            if (newest == null || segment.getMaxCreatedAt().isAfter(newest)) {
+                newest = segment.getMaxCreatedAt();
+            }
+        }
+        return newest;
+    }
+
+    public long getMaxId() {
+        long maxId = 0;
+        for (TradeSegment segment : segments) {
+            maxId = Math.max(maxId, segment.getMaxId());
+        }
+        return maxId;
+    }
+
+    public int getSegmentCount() {
+        return segments.size();
+    }
+
+    public long getRowCount() {
+        long rows = 0;
+        for (TradeSegment segment : segments) {
+            rows += segment.getRowCount();
+        }
+        return rows;
+    }
+
+    public long getSizeBytes() {
+        long bytes = 0;
+        for (TradeSegment segment : segments) {
+            bytes += segment.getSizeBytes();
+        }
+        return bytes;
+    }
+}
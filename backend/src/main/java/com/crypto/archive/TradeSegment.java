@@ -0,0 +1,415 @@
+package com.crypto.archive;
+
+import com.crypto.model.Trade;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.RandomAccessFile;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * One immutable file of archived trades, stored column by column. The header holds the row count,
+ * min/max id and creation time and the symbol dictionary, so segments can be skipped without
+ * touching their data; each column is delta or dictionary encoded and deflated separately, so a
+ * lookup reads only the columns it filters on until it has matching rows.
+ *
+ * <pre>
+ * int headerLength
+ * header: int magic, byte version, int rows, long minId, long maxId, long minCreatedAt, long maxCreatedAt,
+ *         int symbols, UTF symbol..., int columns, (byte column, int rawLength, int compressedLength)...
+ * compressed column blocks in header order
+ * </pre>
+ */
+public final class TradeSegment {
+
+    private static final int MAGIC = 0x54435347;
+    private static final byte VERSION = 1;
+
+    private static final Trade.TradeType[] TYPES = Trade.TradeType.values();
+    private static final Trade.TradeStatus[] STATUSES = Trade.TradeStatus.values();
+
+    enum Column {
+        // Delta from the previous row; rows are in id order
+        ID,
+        // Index into the segment's symbol dictionary
+        SYMBOL,
+        TYPE,
+        STATUS,
+        // Fixed-scale decimals, delta from the previous row
+        AMOUNT,
+        PRICE,
+        TOTAL_VALUE,
+        // Epoch nanoseconds, delta from the previous row
+        CREATED_AT,
+        // Nanoseconds after createdAt plus one; zero when never executed
+        EXECUTED_AT,
+        // UTF-8 length plus one, then the bytes; zero when absent
+        IDEMPOTENCY_KEY
+    }
+
+    private final Path file;
+    private final long sizeBytes;
+    private final int rowCount;
+    private final long minId;
+    private final long maxId;
+    private final LocalDateTime minCreatedAt;
+    private final LocalDateTime maxCreatedAt;
+    private final String[] symbols;
+    private final Map<Column, long[]> columnLocations;
+
+    private TradeSegment(Path file, long sizeBytes, int rowCount, long minId, long maxId,
+                         LocalDateTime minCreatedAt, LocalDateTime maxCreatedAt,
+                         String[] symbols, Map<Column, long[]> columnLocations) {
+        this.file = file;
+        this.sizeBytes = sizeBytes;
+        this.rowCount = rowCount;
+        this.minId = minId;
+        this.maxId = maxId;
+        this.minCreatedAt = minCreatedAt;
+        this.maxCreatedAt = maxCreatedAt;
+        this.symbols = symbols;
+        this.columnLocations = columnLocations;
+    }
+
+    /**
+     * True if the trade has every column the format requires and its decimals fit the fixed-scale
+     * encoding; trades that do not stay hot.
+     */
+    public static boolean canEncode(Trade trade) {
+        if (trade.getId() == null || trade.getSymbol() == null || trade.getType() == null
+                || trade.getStatus() == null || trade.getAmount() == null || trade.getPrice() == null
+                || trade.getTotalValue() == null || trade.getCreatedAt() == null) {
+            return false;
+        }
+        try {
+            ColumnCodec.toUnscaled(trade.getAmount());
+            ColumnCodec.toUnscaled(trade.getPrice());
+            ColumnCodec.toUnscaled(trade.getTotalValue());
+            return true;
+        } catch (ArithmeticException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Encodes the trades, which must be non-empty, into {@code out} in segment format.
+     */
+    static void write(List<Trade> trades, OutputStream out) throws IOException {
+        List<Trade> rows = new ArrayList<>(trades);
+        rows.sort(Comparator.comparing(Trade::getId));
+
+        Map<String, Integer> dictionary = new LinkedHashMap<>();
+        Map<Column, ByteArrayOutputStream> columns = new EnumMap<>(Column.class);
+        for (Column column : Column.values()) {
+            columns.put(column, new ByteArrayOutputStream(rows.size() * 2));
+        }
+
+        long previousId = 0;
+        long previousAmount = 0;
+        long previousPrice = 0;
+        long previousTotal = 0;
+        long previousCreated = 0;
+        long minCreated = Long.MAX_VALUE;
+        long maxCreated = Long.MIN_VALUE;
+        for (Trade trade : rows) {
+            ColumnCodec.writeSignedVarLong(columns.get(Column.ID), trade.getId() - previousId);
+            previousId = trade.getId();
+
+            Integer symbolId = dictionary.computeIfAbsent(trade.getSymbol(), s -> dictionary.size());
+            ColumnCodec.writeVarLong(columns.get(Column.SYMBOL), symbolId);
+            columns.get(Column.TYPE).write(trade.getType().ordinal());
+            columns.get(Column.STATUS).write(trade.getStatus().ordinal());
+
+            long amount = ColumnCodec.toUnscaled(trade.getAmount());
+            ColumnCodec.writeSignedVarLong(columns.get(Column.AMOUNT), amount - previousAmount);
+            previousAmount = amount;
+            long price = ColumnCodec.toUnscaled(trade.getPrice());
+            ColumnCodec.writeSignedVarLong(columns.get(Column.PRICE), price - previousPrice);
+            previousPrice = price;
+            long total = ColumnCodec.toUnscaled(trade.getTotalValue());
+            ColumnCodec.writeSignedVarLong(columns.get(Column.TOTAL_VALUE), total - previousTotal);
+            previousTotal = total;
+
+            long created = ColumnCodec.toEpochNanos(trade.getCreatedAt());
+            ColumnCodec.writeSignedVarLong(columns.get(Column.CREATED_AT), created - previousCreated);
+            previousCreated = created;
+            minCreated = Math.min(minCreated, created);
+            maxCreated = Math.max(maxCreated, created);
+
+            ByteArrayOutputStream executedAt = columns.get(Column.EXECUTED_AT);
+            if (trade.getExecutedAt() == null) {
+                ColumnCodec.writeVarLong(executedAt, 0);
+            } else {
+                long delay = ColumnCodec.toEpochNanos(trade.getExecutedAt()) - created;
+                ColumnCodec.writeVarLong(executedAt, ((delay << 1) ^ (delay >> 63)) + 1);
+            }
+
+            ByteArrayOutputStream key = columns.get(Column.IDEMPOTENCY_KEY);
+            if (trade.getIdempotencyKey() == null) {
+                ColumnCodec.writeVarLong(key, 0);
+            } else {
+                byte[] bytes = trade.getIdempotencyKey().getBytes(StandardCharsets.UTF_8);
+                ColumnCodec.writeVarLong(key, bytes.length + 1);
+                key.write(bytes, 0, bytes.length);
+            }
+        }
+
+        List<byte[]> blocks = new ArrayList<>();
+        ByteArrayOutputStream headerBytes = new ByteArrayOutputStream();
+        DataOutputStream header = new DataOutputStream(headerBytes);
+        header.writeInt(MAGIC);
+        header.writeByte(VERSION);
+        header.writeInt(rows.size());
+        header.writeLong(rows.get(0).getId());
+        header.writeLong(rows.get(rows.size() - 1).getId());
+        header.writeLong(minCreated);
+        header.writeLong(maxCreated);
+        header.writeInt(dictionary.size());
+        for (String symbol : dictionary.keySet()) {
+            header.writeUTF(symbol);
+        }
+        header.writeInt(columns.size());
+        for (Map.Entry<Column, ByteArrayOutputStream> column : columns.entrySet()) {
+            byte[] raw = column.getValue().toByteArray();
+            byte[] compressed = ColumnCodec.compress(raw);
+            header.writeByte(column.getKey().ordinal());
+            header.writeInt(raw.length);
+            header.writeInt(compressed.length);
+            blocks.add(compressed);
+        }
+        header.flush();
+
+        DataOutputStream data = new DataOutputStream(out);
+        data.writeInt(headerBytes.size());
+        headerBytes.writeTo(data);
+        for (byte[] block : blocks) {
+            data.write(block);
+        }
+        data.flush();
+    }
+
+    /**
+     * Reads only the header; column data is read on demand.
+     */
+    static TradeSegment open(Path file) throws IOException {
+        try (RandomAccessFile in = new RandomAccessFile(file.toFile(), "r")) {
+            int headerLength = in.readInt();
+            if (headerLength <= 0 || headerLength > in.length() - 4) {
+                throw new IOException("Corrupt segment header length " + headerLength + ": " + file);
+            }
+            byte[] headerBytes = new byte[headerLength];
+            in.readFully(headerBytes);
+            DataInputStream header = new DataInputStream(new ByteArrayInputStream(headerBytes));
+            if (header.readInt() != MAGIC || header.readByte() != VERSION) {
+                throw new IOException("Not a trade segment: " + file);
+            }
+            int rowCount = header.readInt();
+            long minId = header.readLong();
+            long maxId = header.readLong();
+            LocalDateTime minCreatedAt = ColumnCodec.fromEpochNanos(header.readLong());
+            LocalDateTime maxCreatedAt = ColumnCodec.fromEpochNanos(header.readLong());
+            int symbolCount = header.readInt();
+            // Every symbol takes at least its two length bytes
+            if (rowCount <= 0 || symbolCount < 0 || symbolCount > headerBytes.length / 2) {
+                throw new IOException("Corrupt segment header: " + file);
+            }
+            String[] symbols = new String[symbolCount];
+            for (int i = 0; i < symbols.length; i++) {
+                symbols[i] = header.readUTF();
+            }
+
+            Column[] columnValues = Column.values();
+            Map<Column, long[]> locations = new EnumMap<>(Column.class);
+            long offset = 4L + headerBytes.length;
+            int columnCount = header.readInt();
+            for (int i = 0; i < columnCount; i++) {
+                int ordinal = header.readByte();
+                int rawLength = header.readInt();
+                int compressedLength = header.readInt();
+                if (ordinal < 0 || ordinal >= columnValues.length || rawLength < 0 || compressedLength < 0) {
+                    throw new IOException("Corrupt column entry in " + file);
+                }
+                locations.put(columnValues[ordinal], new long[] {offset, compressedLength, rawLength});
+                offset += compressedLength;
+            }
+            // A partly copied file ends before its last column block
+            if (locations.size() != columnValues.length || offset > in.length()) {
+                throw new IOException("Truncated segment: " + file);
+            }
+            return new TradeSegment(file, in.length(), rowCount, minId, maxId,
+                    minCreatedAt, maxCreatedAt, symbols, locations);
+        }
+    }
+
+    public Path getFile() { return file; }
+
+    public long getSizeBytes() { return sizeBytes; }
+
+    public int getRowCount() { return rowCount; }
+
+    public long getMinId() { return minId; }
+
+    public long getMaxId() { return maxId; }
+
+    public LocalDateTime getMinCreatedAt() { return minCreatedAt; }
+
+    public LocalDateTime getMaxCreatedAt() { return maxCreatedAt; }
+
+    public boolean mayContainId(long id) {
+        return id >= minId && id <= maxId;
+    }
+
+    /**
+     * Dictionary index of the symbol, or -1 if no trade in this segment has it.
+     */
+    public int symbolIndex(String symbol) {
+        for (int i = 0; i < symbols.length; i++) {
+            if (symbols[i].equals(symbol)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Row number of the trade with this id, or -1. Reads only the id column.
+     */
+    public int findRow(long id) throws IOException {
+        if (!mayContainId(id)) {
+            return -1;
+        }
+        long[] ids = readIds();
+        int row = Arrays.binarySearch(ids, id);
+        return row >= 0 ? row : -1;
+    }
+
+    /**
+     * Rows holding the given symbol, in id order. Reads only the symbol column.
+     */
+    public int[] findRows(String symbol) throws IOException {
+        int symbolId = symbolIndex(symbol);
+        if (symbolId < 0) {
+            return new int[0];
+        }
+        ColumnCodec.Reader reader = readColumn(Column.SYMBOL);
+        int[] rows = new int[rowCount];
+        int matches = 0;
+        for (int row = 0; row < rowCount; row++) {
+            if (reader.readVarLong() == symbolId) {
+                rows[matches++] = row;
+            }
+        }
+        return Arrays.copyOf(rows, matches);
+    }
+
+    public long[] readIds() throws IOException {
+        ColumnCodec.Reader reader = readColumn(Column.ID);
+        long[] ids = new long[rowCount];
+        long id = 0;
+        for (int row = 0; row < rowCount; row++) {
+            id += reader.readSignedVarLong();
+            ids[row] = id;
+        }
+        return ids;
+    }
+
+    public List<Trade> readAll() throws IOException {
+        int[] rows = new int[rowCount];
+        for (int row = 0; row < rowCount; row++) {
+            rows[row] = row;
+        }
+        return read(rows);
+    }
+
+    /**
+     * Decodes the given rows, which must be in ascending order, as detached trades.
+     */
+    public List<Trade> read(int[] rows) throws IOException {
+        List<Trade> trades = new ArrayList<>(rows.length);
+        if (rows.length == 0) {
+            return trades;
+        }
+        ColumnCodec.Reader ids = readColumn(Column.ID);
+        ColumnCodec.Reader symbolIds = readColumn(Column.SYMBOL);
+        ColumnCodec.Reader types = readColumn(Column.TYPE);
+        ColumnCodec.Reader statuses = readColumn(Column.STATUS);
+        ColumnCodec.Reader amounts = readColumn(Column.AMOUNT);
+        ColumnCodec.Reader prices = readColumn(Column.PRICE);
+        ColumnCodec.Reader totals = readColumn(Column.TOTAL_VALUE);
+        ColumnCodec.Reader createdAts = readColumn(Column.CREATED_AT);
+        ColumnCodec.Reader executedAts = readColumn(Column.EXECUTED_AT);
+        ColumnCodec.Reader keys = readColumn(Column.IDEMPOTENCY_KEY);
+
+        long id = 0;
+        long amount = 0;
+        long price = 0;
+        long total = 0;
+        long created = 0;
+        int next = 0;
+        // Deltas chain from row to row, so every row up to the last requested one is decoded
+        for (int row = 0; row <= rows[rows.length - 1]; row++) {
+            id += ids.readSignedVarLong();
+            int symbolId = (int) symbolIds.readVarLong();
+            int type = types.readByte();
+            int status = statuses.readByte();
+            amount += amounts.readSignedVarLong();
+            price += prices.readSignedVarLong();
+            total += totals.readSignedVarLong();
+            created += createdAts.readSignedVarLong();
+            long executed = executedAts.readVarLong();
+            int keyLength = (int) keys.readVarLong();
+            byte[] key = keyLength > 0 ? keys.readBytes(keyLength - 1) : null;
+
+            if (row != rows[next]) {
+                continue;
+            }
+            next++;
+
+            Trade trade = new Trade();
+            trade.setId(id);
+            trade.setSymbol(symbols[symbolId]);
+            trade.setType(TYPES[type]);
+            trade.setStatus(STATUSES[status]);
+            trade.setAmount(ColumnCodec.fromUnscaled(amount));
+            trade.setPrice(ColumnCodec.fromUnscaled(price));
+            trade.setTotalValue(ColumnCodec.fromUnscaled(total));
+            trade.setCreatedAt(ColumnCodec.fromEpochNanos(created));
+            if (executed > 0) {
+                long delay = executed - 1;
+                trade.setExecutedAt(ColumnCodec.fromEpochNanos(created + ((delay >>> 1) ^ -(delay & 1))));
+            }
+            if (key != null) {
+                trade.setIdempotencyKey(new String(key, StandardCharsets.UTF_8));
+            }
+            trades.add(trade);
+        }
+        return trades;
+    }
+
+    private ColumnCodec.Reader readColumn(Column column) throws IOException {
+        long[] location = columnLocations.get(column);
+        byte[] compressed = new byte[(int) location[1]];
+        try (RandomAccessFile in = new RandomAccessFile(file.toFile(), "r")) {
+            in.seek(location[0]);
+            in.readFully(compressed);
+        }
+        try {
+            return new ColumnCodec.Reader(ColumnCodec.decompress(compressed, (int) location[2]));
+        } catch (IllegalStateException e) {
+            throw new IOException(e.getMessage() + " " + column + " in " + file, e);
+        }
+    }
+}
@@ -0,0 +1,58 @@
+package com.crypto.config;
+
+import com.crypto.ratelimit.AdaptiveConcurrencyLimiter;
+import com.crypto.ratelimit.TokenBucket;
+import com.crypto.ratelimit.TradeAdmissionInterceptor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+@Configuration
+public class AdmissionConfig implements WebMvcConfigurer {
+
+    @Value("${trading.admission.global.permits-per-second:200}")
+    private double globalPermitsPerSecond;
+
+    @Value("${trading.admission.global.burst:400}")
+    private int globalBurst;
+
+    @Value("${trading.admission.client.permits-per-second:10}")
+    private double clientPermitsPerSecond;
+
+    @Value("${trading.admission.client.burst:20}")
+    private int clientBurst;
+
+    @Value("${trading.admission.client.max-tracked:10000}")
+    private int maxTrackedClients;
+
+    @Value("${trading.admission.client.trusted-header:}")
+    private String trustedClientHeader;
+
+    @Value("${trading.admission.concurrency.initial-limit:20}")
+    private int initialConcurrencyLimit;
+
+    @Value("${trading.admission.concurrency.min-limit:4}")
+    private int minConcurrencyLimit;
+
+    @Value("${trading.admission.concurrency.max-limit:200}")
+    private int maxConcurrencyLimit;
+
+    @Bean
+    public TradeAdmissionInterceptor tradeAdmissionInterceptor() {
+        return new TradeAdmissionInterceptor(
+            new TokenBucket(globalPermitsPerSecond, globalBurst),
+            new AdaptiveConcurrencyLimiter(initialConcurrencyLimit, minConcurrencyLimit, maxConcurrencyLimit),
+            clientPermitsPerSecond,
+            clientBurst,
+            maxTrackedClients,
+            trustedClientHeader
+        );
+    }
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(tradeAdmissionInterceptor()).addPathPatterns("/api/trades");
+    }
+}
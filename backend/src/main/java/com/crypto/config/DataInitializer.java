@@ -4,12 +4,18 @@ import com.crypto.model.Portfolio;
 import com.crypto.model.Trade;
 import com.crypto.repository.PortfolioRepository;
 import com.crypto.repository.TradeRepository;
+import com.crypto.service.CryptocurrencyService;
+import com.crypto.service.PriceHistoryService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.CommandLineRunner;
 import org.springframework.stereotype.Component;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
 
 @Component
 public class DataInitializer implements CommandLineRunner {
@@ -20,6 +26,12 @@ public class DataInitializer implements CommandLineRunner {
     @Autowired
     private TradeRepository tradeRepository;
     
+    @Autowired
+    private CryptocurrencyService cryptocurrencyService;
+    
+    @Autowired
+    private PriceHistoryService priceHistoryService;
+    
     @Override
     public void run(String... args) throws Exception {
         // Initialize sample portfolio data
@@ -27,8 +39,7 @@ public class DataInitializer implements CommandLineRunner {
             Portfolio btcHolding = new Portfolio("bitcoin", new BigDecimal("0.5"), new BigDecimal("42000.00"));
             Portfolio ethHolding = new Portfolio("ethereum", new BigDecimal("2.3"), new BigDecimal("2650.00"));
             
-            portfolioRepository.save(btcHolding);
-            portfolioRepository.save(ethHolding);
+            portfolioRepository.saveAll(Arrays.asList(btcHolding, ethHolding));
         }
         
         // Initialize sample trade history
@@ -47,9 +58,20 @@ public class DataInitializer implements CommandLineRunner {
             trade3.setStatus(Trade.TradeStatus.PENDING);
             trade3.setCreatedAt(LocalDateTime.now().minusHours(2));
             
-            tradeRepository.save(trade1);
-            tradeRepository.save(trade2);
-            tradeRepository.save(trade3);
+            tradeRepository.saveAll(Arrays.asList(trade1, trade2, trade3));
+        }
+        
+        // Initialize price history for portfolio analytics (random walk, ~1% per step)
+        if (priceHistoryService.getVersion() == 0) {
+            Random random = new Random();
+            Map<String, Double> prices = new HashMap<>();
+            for (String symbol : cryptocurrencyService.getSupportedSymbols()) {
+                prices.put(symbol, cryptocurrencyService.getLatestPrice(symbol).doubleValue());
+            }
+            for (int i = 0; i < 240; i++) {
+                prices.replaceAll((symbol, price) -> price * (1 + random.nextGaussian() * 0.01));
+                priceHistoryService.record(prices);
+            }
         }
     }
 }
@@ -0,0 +1,30 @@
+package com.crypto.config;
+
+import com.crypto.model.Trade;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+@Configuration
+public class IdempotencyConfig {
+
+    @Value("${trading.idempotency.max-keys:100000}")
+    private long maxKeys;
+
+    @Value("${trading.idempotency.ttl-minutes:60}")
+    private long ttlMinutes;
+
+    // Trades by Idempotency-Key; a future so concurrent retries wait on the first attempt
+    @Bean
+    public Cache<String, CompletableFuture<Trade>> tradeIdempotencyCache() {
+        return Caffeine.newBuilder()
+                .maximumSize(maxKeys)
+                .expireAfterWrite(ttlMinutes, TimeUnit.MINUTES)
+                .build();
+    }
+}
@@ -0,0 +1,36 @@
+package com.crypto.config;
+
+import org.springframework.beans.factory.config.BeanDefinition;
+import org.springframework.beans.factory.config.BeanFactoryPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Defers creation of application beans until first use (Spring Boot 2.1 has no
+ * {@code spring.main.lazy-initialization}). Beans listed in {@code app.lazy-init.eager-beans}
+ * sit on the trade path and are still created at startup so the first request does not pay for them.
+ */
+@Configuration
+@ConditionalOnProperty(name = "app.lazy-init.enabled", havingValue = "true")
+public class LazyInitializationConfig {
+
+    @Bean
+    public static BeanFactoryPostProcessor lazyInitBeanFactoryPostProcessor(Environment environment) {
+        Set<String> eagerBeans = new HashSet<>(Arrays.asList(
+                environment.getProperty("app.lazy-init.eager-beans", String[].class, new String[0])));
+        return beanFactory -> {
+            for (String name : beanFactory.getBeanDefinitionNames()) {
+                BeanDefinition definition = beanFactory.getBeanDefinition(name);
+                if (definition.getRole() == BeanDefinition.ROLE_APPLICATION && !eagerBeans.contains(name)) {
+                    definition.setLazyInit(true);
+                }
+            }
+        };
+    }
+}
@@ -0,0 +1,12 @@
+package com.crypto.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+/**
+ * Background jobs such as trade archiving run on Spring's single scheduler thread.
+ */
+@Configuration
+@EnableScheduling
+public class SchedulingConfig {
+}
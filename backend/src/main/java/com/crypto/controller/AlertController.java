@@ -0,0 +1,60 @@
+package com.crypto.controller;
+
+import com.crypto.alert.AlertNotification;
+import com.crypto.alert.PriceAlert;
+import com.crypto.dto.AlertRequest;
+import com.crypto.service.CryptocurrencyService;
+import com.crypto.service.PriceAlertService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import javax.validation.Valid;
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/alerts")
+@CrossOrigin(origins = "*")
+public class AlertController {
+    
+    @Autowired
+    private PriceAlertService priceAlertService;
+    
+    @Autowired
+    private CryptocurrencyService cryptocurrencyService;
+    
+    @PostMapping
+    public ResponseEntity<PriceAlert> createAlert(@Valid @RequestBody AlertRequest request) {
+        boolean needsWindow = request.getCondition() == PriceAlert.Condition.MOVE_PERCENT;
+        if (cryptocurrencyService.getLatestPrice(request.getSymbol()) == null
+                || needsWindow != (request.getWindowMinutes() != null)) {
+            return ResponseEntity.badRequest().build();
+        }
+        PriceAlert alert = priceAlertService.createAlert(request);
+        return ResponseEntity.status(HttpStatus.CREATED).body(alert);
+    }
+    
+    @GetMapping
+    public ResponseEntity<List<PriceAlert>> getAlerts() {
+        List<PriceAlert> alerts = priceAlertService.getAlerts();
+        return ResponseEntity.ok(alerts);
+    }
+    
+    @DeleteMapping("/{id}")
+    public ResponseEntity<Void> deleteAlert(@PathVariable long id) {
+        if (priceAlertService.deleteAlert(id)) {
+            return ResponseEntity.noContent().build();
+        }
+        return ResponseEntity.notFound().build();
+    }
+    
+    @GetMapping("/notifications")
+    public ResponseEntity<List<AlertNotification>> getNotifications(@RequestParam(defaultValue = "500") int max) {
+        if (max < 1) {
+            return ResponseEntity.badRequest().build();
+        }
+        List<AlertNotification> notifications = priceAlertService.drainNotifications(max);
+        return ResponseEntity.ok(notifications);
+    }
+}
@@ -1,19 +1,26 @@
 package com.crypto.controller;
 
 import com.crypto.dto.CryptoPriceResponse;
+import com.crypto.jfr.DashboardCompositionEvent;
 import com.crypto.model.Portfolio;
 import com.crypto.model.Trade;
 import com.crypto.service.CryptocurrencyService;
 import com.crypto.service.PortfolioService;
+import com.crypto.service.RequestCoalescer;
 import com.crypto.service.TradeService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
 import java.math.BigDecimal;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
 
 @RestController
 @RequestMapping("/api/dashboard")
@@ -29,26 +36,62 @@ public class DashboardController {
     @Autowired
     private TradeService tradeService;
     
+    @Autowired
+    private RequestCoalescer requestCoalescer;
+    
+    // Only present in virtual-thread mode; otherwise the lookups below run inline on the request thread
+    @Autowired(required = false)
+    @Qualifier("virtualThreadExecutor")
+    private ExecutorService virtualThreadExecutor;
+    
     @GetMapping("/overview")
     public ResponseEntity<Map<String, Object>> getDashboardOverview() {
-        Map<String, Object> overview = new HashMap<>();
+        // Dashboards refreshing at the same moment share one composition
+        Map<String, Object> overview = requestCoalescer.execute("dashboard-overview", this::buildOverview);
+        return ResponseEntity.ok(overview);
+    }
+    
+    private Map<String, Object> buildOverview() {
+        DashboardCompositionEvent event = new DashboardCompositionEvent();
+        event.begin();
+        event.setStatus("FAILED");
+        try {
+            Map<String, Object> overview = composeOverview();
+            event.setHoldings(((List<?>) overview.get("portfolio")).size());
+            event.setRecentTrades(((List<?>) overview.get("recentTrades")).size());
+            event.setStatus("COMPLETED");
+            return overview;
+        } finally {
+            event.commit();
+        }
+    }
+    
+    private Map<String, Object> composeOverview() {
+        Executor executor = virtualThreadExecutor != null ? virtualThreadExecutor : Runnable::run;
         
         // Get current prices
-        Map<String, CryptoPriceResponse> prices = cryptocurrencyService.getCurrentPrices();
-        overview.put("prices", prices);
+        CompletableFuture<Map<String, CryptoPriceResponse>> prices =
+                CompletableFuture.supplyAsync(cryptocurrencyService::getCurrentPrices, executor);
         
         // Get portfolio
-        List<Portfolio> portfolio = portfolioService.getPortfolio();
-        overview.put("portfolio", portfolio);
+        CompletableFuture<List<Portfolio>> portfolio =
+                CompletableFuture.supplyAsync(portfolioService::getPortfolio, executor);
         
         // Get total portfolio value
-        BigDecimal totalValue = portfolioService.getTotalPortfolioValue();
-        overview.put("totalPortfolioValue", totalValue);
+        CompletableFuture<BigDecimal> totalValue =
+                CompletableFuture.supplyAsync(portfolioService::getTotalPortfolioValue, executor);
         
         // Get recent transactions
-        List<Trade> recentTrades = tradeService.getRecentTrades(5);
-        overview.put("recentTrades", recentTrades);
+        CompletableFuture<List<Trade>> recentTrades =
+                CompletableFuture.supplyAsync(() -> tradeService.getRecentTrades(5), executor);
         
-        return ResponseEntity.ok(overview);
+        Map<String, Object> overview = new HashMap<>();
+        overview.put("prices", Collections.unmodifiableMap(prices.join()));
+        overview.put("portfolio", portfolio.join());
+        overview.put("totalPortfolioValue", totalValue.join());
+        overview.put("recentTrades", Collections.unmodifiableList(recentTrades.join()));
+        
+        // Shared by every coalesced caller
+        return Collections.unmodifiableMap(overview);
     }
 }
@@ -0,0 +1,63 @@
+package com.crypto.controller;
+
+import com.crypto.ratelimit.TradeAdmissionInterceptor;
+import com.crypto.service.HibernateCacheService;
+import com.crypto.service.RequestCoalescer;
+import com.crypto.service.TradeArchiveService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.io.IOException;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/metrics")
+@CrossOrigin(origins = "*")
+public class MetricsController {
+    
+    @Autowired
+    private TradeAdmissionInterceptor tradeAdmissionInterceptor;
+    
+    @Autowired
+    private HibernateCacheService hibernateCacheService;
+    
+    @Autowired
+    private RequestCoalescer requestCoalescer;
+    
+    @Autowired
+    private TradeArchiveService tradeArchiveService;
+    
+    @GetMapping("/admission")
+    public ResponseEntity<Map<String, Object>> getAdmissionStatistics() {
+        return ResponseEntity.ok(tradeAdmissionInterceptor.getStatistics());
+    }
+    
+    @GetMapping("/cache")
+    public ResponseEntity<Map<String, Object>> getCacheStatistics() {
+        return ResponseEntity.ok(hibernateCacheService.getStatistics());
+    }
+    
+    @GetMapping("/coalescing")
+    public ResponseEntity<Map<String, Object>> getCoalescingStatistics() {
+        return ResponseEntity.ok(requestCoalescer.getStatistics());
+    }
+    
+    @GetMapping("/archive")
+    public ResponseEntity<Map<String, Object>> getArchiveStatistics() {
+        return ResponseEntity.ok(tradeArchiveService.getStatistics());
+    }
+    
+    // Runs the archiver now instead of waiting for the next scheduled run
+    @PostMapping("/archive")
+    public ResponseEntity<Map<String, Object>> archiveSettledTrades() throws IOException {
+        tradeArchiveService.archiveSettledTrades();
+        return ResponseEntity.ok(tradeArchiveService.getStatistics());
+    }
+    
+    @DeleteMapping("/cache")
+    public ResponseEntity<Void> evictCaches() {
+        hibernateCacheService.evictAll();
+        return ResponseEntity.noContent().build();
+    }
+}
@@ -1,8 +1,13 @@
 package com.crypto.controller;
 
+import com.crypto.dto.DeltaResponse;
+import com.crypto.dto.PortfolioAnalyticsResponse;
 import com.crypto.model.Portfolio;
+import com.crypto.service.PortfolioAnalyticsService;
 import com.crypto.service.PortfolioService;
+import com.crypto.service.PriceHistoryService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
@@ -17,10 +22,33 @@ public class PortfolioController {
     @Autowired
     private PortfolioService portfolioService;
     
+    @Autowired
+    private PortfolioAnalyticsService portfolioAnalyticsService;
+    
+    @Autowired
+    private PriceHistoryService priceHistoryService;
+    
     @GetMapping
-    public ResponseEntity<List<Portfolio>> getPortfolio() {
+    public ResponseEntity<List<Portfolio>> getPortfolio(
+            @RequestHeader(name = "If-None-Match", required = false) String ifNoneMatch) {
+        String etag = etag();
+        if (etag.equals(ifNoneMatch)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).build();
+        }
         List<Portfolio> portfolio = portfolioService.getPortfolio();
-        return ResponseEntity.ok(portfolio);
+        return ResponseEntity.ok().eTag(etag).body(portfolio);
+    }
+    
+    @GetMapping(params = "since")
+    public ResponseEntity<DeltaResponse<Portfolio>> getPortfolioChanges(
+            @RequestParam String since,
+            @RequestHeader(name = "If-None-Match", required = false) String ifNoneMatch) {
+        String etag = etag();
+        if (etag.equals(ifNoneMatch)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).build();
+        }
+        DeltaResponse<Portfolio> changes = portfolioService.getPortfolioChanges(since);
+        return ResponseEntity.ok().eTag(etag).body(changes);
     }
     
     @GetMapping("/total-value")
@@ -29,6 +57,19 @@ public class PortfolioController {
         return ResponseEntity.ok(totalValue);
     }
     
+    @GetMapping("/analytics")
+    public ResponseEntity<PortfolioAnalyticsResponse> getPortfolioAnalytics(
+            @RequestParam(defaultValue = "60") int window,
+            @RequestParam(defaultValue = "0.95") double confidence) {
+        // No more snapshots than the history size are kept, so a longer window cannot be served;
+        // the confidence test is written so NaN fails it
+        if (window < 2 || window > priceHistoryService.getHistorySize() || !(confidence > 0 && confidence < 1)) {
+            return ResponseEntity.badRequest().build();
+        }
+        PortfolioAnalyticsResponse analytics = portfolioAnalyticsService.getAnalytics(window, confidence);
+        return ResponseEntity.ok(analytics);
+    }
+    
     @GetMapping("/{symbol}")
     public ResponseEntity<Portfolio> getPortfolioBySymbol(@PathVariable String symbol) {
         Portfolio holding = portfolioService.getPortfolioBySymbol(symbol);
@@ -37,4 +78,9 @@ public class PortfolioController {
         }
         return ResponseEntity.notFound().build();
     }
+    
+    // Current values follow the latest quotes, so a new quote changes the ETag as well as a holding change
+    private String etag() {
+        return "\"portfolio-" + portfolioService.getChangeToken() + "\"";
+    }
 }
@@ -1,7 +1,10 @@
 package com.crypto.controller;
 
+import com.crypto.dto.DeltaResponse;
 import com.crypto.dto.TradeRequest;
 import com.crypto.model.Trade;
+import com.crypto.service.ChangeLogService;
+import com.crypto.service.TradeRejectedException;
 import com.crypto.service.TradeService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
@@ -9,7 +12,9 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
 import javax.validation.Valid;
+import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 @RestController
@@ -20,9 +25,17 @@ public class TradeController {
     @Autowired
     private TradeService tradeService;
     
+    @Autowired
+    private ChangeLogService changeLogService;
+    
     @PostMapping
-    public ResponseEntity<Trade> createTrade(@Valid @RequestBody TradeRequest request) {
-        Trade trade = tradeService.createTrade(request);
+    public ResponseEntity<Trade> createTrade(
+            @Valid @RequestBody TradeRequest request,
+            @RequestHeader(name = "Idempotency-Key", required = false) String idempotencyKey) {
+        if (idempotencyKey != null && (idempotencyKey.isEmpty() || idempotencyKey.length() > 64)) {
+            return ResponseEntity.badRequest().build();
+        }
+        Trade trade = tradeService.createTrade(request, idempotencyKey);
         return ResponseEntity.status(HttpStatus.CREATED).body(trade);
     }
     
@@ -33,9 +46,28 @@ public class TradeController {
     }
     
     @GetMapping("/recent")
-    public ResponseEntity<List<Trade>> getRecentTrades(@RequestParam(defaultValue = "10") int limit) {
+    public ResponseEntity<List<Trade>> getRecentTrades(
+            @RequestParam(defaultValue = "10") int limit,
+            @RequestHeader(name = "If-None-Match", required = false) String ifNoneMatch) {
+        String etag = recentTradesEtag(limit);
+        if (etag.equals(ifNoneMatch)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).build();
+        }
         List<Trade> trades = tradeService.getRecentTrades(limit);
-        return ResponseEntity.ok(trades);
+        return ResponseEntity.ok().eTag(etag).body(trades);
+    }
+    
+    @GetMapping(value = "/recent", params = "since")
+    public ResponseEntity<DeltaResponse<Trade>> getRecentTradeChanges(
+            @RequestParam String since,
+            @RequestParam(defaultValue = "10") int limit,
+            @RequestHeader(name = "If-None-Match", required = false) String ifNoneMatch) {
+        String etag = recentTradesEtag(limit);
+        if (etag.equals(ifNoneMatch)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).build();
+        }
+        DeltaResponse<Trade> changes = tradeService.getTradeChanges(since, limit);
+        return ResponseEntity.ok().eTag(etag).body(changes);
     }
     
     @GetMapping("/{id}")
@@ -59,4 +91,15 @@ public class TradeController {
         }
         return ResponseEntity.notFound().build();
     }
+    
+    private String recentTradesEtag(int limit) {
+        return "\"trades-" + changeLogService.toToken(changeLogService.getVersion(ChangeLogService.EntityType.TRADE))
+                + "-" + limit + "\"";
+    }
+    
+    @ExceptionHandler(TradeRejectedException.class)
+    public ResponseEntity<Map<String, String>> handleTradeRejected(TradeRejectedException e) {
+        return ResponseEntity.status(HttpStatus.UNPROCESSABLE_ENTITY)
+                .body(Collections.singletonMap("error", e.getMessage()));
+    }
 }
@@ -0,0 +1,44 @@
+package com.crypto.dto;
+
+import com.crypto.alert.PriceAlert;
+
+import javax.validation.constraints.NotBlank;
+import javax.validation.constraints.NotNull;
+import javax.validation.constraints.Positive;
+import java.math.BigDecimal;
+
+public class AlertRequest {
+    
+    @NotBlank(message = "Symbol is required")
+    private String symbol;
+    
+    @NotNull(message = "Condition is required")
+    private PriceAlert.Condition condition;
+    
+    @NotNull(message = "Threshold is required")
+    @Positive(message = "Threshold must be positive")
+    private BigDecimal threshold;
+    
+    @Positive(message = "Window must be positive")
+    private Integer windowMinutes;
+    
+    private boolean rearm;
+    
+    public AlertRequest() {}
+    
+    // Getters and Setters
+    public String getSymbol() { return symbol; }
+    public void setSymbol(String symbol) { this.symbol = symbol; }
+    
+    public PriceAlert.Condition getCondition() { return condition; }
+    public void setCondition(PriceAlert.Condition condition) { this.condition = condition; }
+    
+    public BigDecimal getThreshold() { return threshold; }
+    public void setThreshold(BigDecimal threshold) { this.threshold = threshold; }
+    
+    public Integer getWindowMinutes() { return windowMinutes; }
+    public void setWindowMinutes(Integer windowMinutes) { this.windowMinutes = windowMinutes; }
+    
+    public boolean isRearm() { return rearm; }
+    public void setRearm(boolean rearm) { this.rearm = rearm; }
+}
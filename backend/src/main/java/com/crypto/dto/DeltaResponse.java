@@ -0,0 +1,32 @@
+package com.crypto.dto;
+
+import java.util.List;
+
+public class DeltaResponse<T> {
+    private String version;
+    private boolean full;
+    private List<T> items;
+    private List<String> removed;
+    
+    public DeltaResponse() {}
+    
+    public DeltaResponse(String version, boolean full, List<T> items, List<String> removed) {
+        this.version = version;
+        this.full = full;
+        this.items = items;
+        this.removed = removed;
+    }
+    
+    // Getters and Setters
+    public String getVersion() { return version; }
+    public void setVersion(String version) { this.version = version; }
+    
+    public boolean isFull() { return full; }
+    public void setFull(boolean full) { this.full = full; }
+    
+    public List<T> getItems() { return items; }
+    public void setItems(List<T> items) { this.items = items; }
+    
+    public List<String> getRemoved() { return removed; }
+    public void setRemoved(List<String> removed) { this.removed = removed; }
+}
@@ -0,0 +1,59 @@
+package com.crypto.dto;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+
+public class PortfolioAnalyticsResponse {
+    private long priceHistoryVersion;
+    private int window;
+    private double confidence;
+    private BigDecimal totalValue;
+    private List<String> symbols;
+    private List<String> excludedSymbols;
+    private Map<String, Double> allocation;
+    private Map<String, Double> volatility;
+    private double portfolioVolatility;
+    private double[][] correlationMatrix;
+    private BigDecimal historicalVaR;
+    private BigDecimal parametricVaR;
+
+    public PortfolioAnalyticsResponse() {}
+
+    // Getters and Setters
+    public long getPriceHistoryVersion() { return priceHistoryVersion; }
+    public void setPriceHistoryVersion(long priceHistoryVersion) { this.priceHistoryVersion = priceHistoryVersion; }
+
+    public int getWindow() { return window; }
+    public void setWindow(int window) { this.window = window; }
+
+    public double getConfidence() { return confidence; }
+    public void setConfidence(double confidence) { this.confidence = confidence; }
+
+    public BigDecimal getTotalValue() { return totalValue; }
+    public void setTotalValue(BigDecimal totalValue) { this.totalValue = totalValue; }
+
+    public List<String> getSymbols() { return symbols; }
+    public void setSymbols(List<String> symbols) { this.symbols = symbols; }
+
+    public List<String> getExcludedSymbols() { return excludedSymbols; }
+    public void setExcludedSymbols(List<String> excludedSymbols) { this.excludedSymbols = excludedSymbols; }
+
+    public Map<String, Double> getAllocation() { return allocation; }
+    public void setAllocation(Map<String, Double> allocation) { this.allocation = allocation; }
+
+    public Map<String, Double> getVolatility() { return volatility; }
+    public void setVolatility(Map<String, Double> volatility) { this.volatility = volatility; }
+
+    public double getPortfolioVolatility() { return portfolioVolatility; }
+    public void setPortfolioVolatility(double portfolioVolatility) { this.portfolioVolatility = portfolioVolatility; }
+
+    public double[][] getCorrelationMatrix() { return correlationMatrix; }
+    public void setCorrelationMatrix(double[][] correlationMatrix) { this.correlationMatrix = correlationMatrix; }
+
+    public BigDecimal getHistoricalVaR() { return historicalVaR; }
+    public void setHistoricalVaR(BigDecimal historicalVaR) { this.historicalVaR = historicalVaR; }
+
+    public BigDecimal getParametricVaR() { return parametricVaR; }
+    public void setParametricVaR(BigDecimal parametricVaR) { this.parametricVaR = parametricVaR; }
+}
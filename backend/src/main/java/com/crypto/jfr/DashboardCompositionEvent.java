@@ -0,0 +1,24 @@
+package com.crypto.jfr;
+
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Spans every coin, so the symbol is left unset.
+ */
+@Name("com.crypto.DashboardComposition")
+@Label("Dashboard Composition")
+@Description("Prices, portfolio, total value and recent trades composed for one dashboard overview; status is COMPLETED or FAILED")
+public class DashboardCompositionEvent extends TradingEvent {
+
+    @Label("Holdings")
+    private int holdings;
+
+    @Label("Recent Trades")
+    private int recentTrades;
+
+    public void setHoldings(int holdings) { this.holdings = holdings; }
+
+    public void setRecentTrades(int recentTrades) { this.recentTrades = recentTrades; }
+}
@@ -0,0 +1,11 @@
+package com.crypto.jfr;
+
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+@Name("com.crypto.PortfolioUpdate")
+@Label("Portfolio Update")
+@Description("Holding change for an executed trade; status is CREATED, UPDATED, REMOVED, IGNORED, or ERROR if it threw")
+public class PortfolioUpdateEvent extends TradingEvent {
+}
@@ -0,0 +1,16 @@
+package com.crypto.jfr;
+
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+@Name("com.crypto.PriceTick")
+@Label("Price Tick")
+@Description("Recording and alert evaluation of one quote; status is UP, DOWN, UNCHANGED, FIRST, or ERROR if it threw")
+public class PriceTickEvent extends TradingEvent {
+
+    @Label("Price")
+    private double price;
+
+    public void setPrice(double price) { this.price = price; }
+}
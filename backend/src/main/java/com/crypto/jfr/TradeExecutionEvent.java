@@ -0,0 +1,11 @@
+package com.crypto.jfr;
+
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+@Name("com.crypto.TradeExecution")
+@Label("Trade Execution")
+@Description("Simulated fill, portfolio update and final save of a submitted trade; status is COMPLETED, FAILED, or ERROR if it threw")
+public class TradeExecutionEvent extends TradingEvent {
+}
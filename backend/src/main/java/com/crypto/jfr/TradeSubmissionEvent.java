@@ -0,0 +1,16 @@
+package com.crypto.jfr;
+
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+@Name("com.crypto.TradeSubmission")
+@Label("Trade Submission")
+@Description("Pre-trade risk check, persistence and execution of one order; status is the final trade status or the rejection")
+public class TradeSubmissionEvent extends TradingEvent {
+
+    @Label("Type")
+    private String type;
+
+    public void setType(String type) { this.type = type; }
+}
@@ -0,0 +1,28 @@
+package com.crypto.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.StackTrace;
+
+/**
+ * Fields shared by the trading lifecycle events. The duration is JFR's own, from
+ * {@code begin()} to {@code commit()}. Events that are not enabled in a running recording cost
+ * an allocation the JIT usually removes and a flag check, so they stay in production code.
+ * Stack traces are off; the duration and fields are what outlier analysis needs.
+ */
+@Category("Crypto Trading")
+@StackTrace(false)
+public abstract class TradingEvent extends Event {
+
+    // Not private: JFR leaves private superclass fields out of the event type
+    @Label("Symbol")
+    protected String symbol;
+
+    @Label("Status")
+    protected String status;
+
+    public void setSymbol(String symbol) { this.symbol = symbol; }
+
+    public void setStatus(String status) { this.status = status; }
+}
@@ -37,6 +37,9 @@ public class Trade {
     
     private LocalDateTime executedAt;
     
+    @Column(unique = true, length = 64)
+    private String idempotencyKey;
+    
     // Constructors
     public Trade() {}
     
@@ -78,6 +81,9 @@ public class Trade {
     public LocalDateTime getExecutedAt() { return executedAt; }
     public void setExecutedAt(LocalDateTime executedAt) { this.executedAt = executedAt; }
     
+    public String getIdempotencyKey() { return idempotencyKey; }
+    public void setIdempotencyKey(String idempotencyKey) { this.idempotencyKey = idempotencyKey; }
+    
     public enum TradeType {
         BUY, SELL
     }
@@ -0,0 +1,88 @@
+package com.crypto.ratelimit;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Concurrency limit that adapts to observed latency (gradient algorithm).
+ * The limit grows while request latency stays near the best latency seen recently and shrinks
+ * as soon as requests start queueing, so excess load is rejected instead of slowing everyone down.
+ */
+public class AdaptiveConcurrencyLimiter {
+
+    private static final double SMOOTHING = 0.2;
+    private static final double RTT_DECAY = 0.1;
+    private static final int MIN_RTT_WINDOW = 500;
+
+    private final int minLimit;
+    private final int maxLimit;
+    private final AtomicInteger inFlight = new AtomicInteger();
+
+    private volatile int limit;
+
+    // Guarded by this; only touched when a request completes
+    private double estimatedLimit;
+    private double smoothedRttNanos;
+    private long minRttNanos = Long.MAX_VALUE;
+    private long windowMinRttNanos = Long.MAX_VALUE;
+    private int windowSamples;
+
+    public AdaptiveConcurrencyLimiter(int initialLimit, int minLimit, int maxLimit) {
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.limit = initialLimit;
+        this.estimatedLimit = initialLimit;
+    }
+
+    public boolean tryAcquire() {
+        while (true) {
+            int current = inFlight.get();
+            if (current >= limit) {
+                return false;
+            }
+            if (inFlight.compareAndSet(current, current + 1)) {
+                return true;
+            }
+        }
+    }
+
+    public void release(long rttNanos) {
+        int concurrency = inFlight.getAndDecrement();
+        onSample(rttNanos, concurrency);
+    }
+
+    private synchronized void onSample(long rttNanos, int concurrency) {
+        smoothedRttNanos = smoothedRttNanos == 0
+                ? rttNanos
+                : smoothedRttNanos * (1 - RTT_DECAY) + rttNanos * RTT_DECAY;
+
+        // Re-learn the no-load latency periodically so the baseline follows slow drift
+        windowMinRttNanos = Math.min(windowMinRttNanos, rttNanos);
+        if (++windowSamples >= MIN_RTT_WINDOW) {
+            minRttNanos = windowMinRttNanos;
+            windowMinRttNanos = Long.MAX_VALUE;
+            windowSamples = 0;
+        } else {
+            minRttNanos = Math.min(minRttNanos, rttNanos);
+        }
+
+        // Only grow when the limit is actually being used
+        if (concurrency < estimatedLimit / 2) {
+            return;
+        }
+
+        double gradient = Math.max(0.5, Math.min(1.0, minRttNanos / smoothedRttNanos));
+        double queueAllowance = Math.sqrt(estimatedLimit);
+        double newLimit = estimatedLimit * gradient + queueAllowance;
+        estimatedLimit = estimatedLimit * (1 - SMOOTHING) + newLimit * SMOOTHING;
+        estimatedLimit = Math.max(minLimit, Math.min(maxLimit, estimatedLimit));
+        limit = (int) estimatedLimit;
+    }
+
+    public int getLimit() {
+        return limit;
+    }
+
+    public int getInFlight() {
+        return inFlight.get();
+    }
+}
@@ -0,0 +1,58 @@
+package com.crypto.ratelimit;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Lock-free token bucket, implemented as the generic cell rate algorithm: the whole bucket state
+ * is a single "theoretical arrival time" that each permit pushes forward by one emission interval.
+ */
+public class TokenBucket {
+
+    private final long emissionIntervalNanos;
+    private final long burstToleranceNanos;
+    private final AtomicLong theoreticalArrivalNanos;
+
+    public TokenBucket(double permitsPerSecond, int burstCapacity) {
+        if (permitsPerSecond <= 0 || burstCapacity < 1) {
+            throw new IllegalArgumentException("Rate and burst capacity must be positive");
+        }
+        this.emissionIntervalNanos = (long) (TimeUnit.SECONDS.toNanos(1) / permitsPerSecond);
+        this.burstToleranceNanos = emissionIntervalNanos * burstCapacity;
+        this.theoreticalArrivalNanos = new AtomicLong(System.nanoTime());
+    }
+
+    /**
+     * Takes one permit if available.
+     *
+     * @return 0 if a permit was taken, otherwise the nanoseconds until one will be available
+     */
+    public long tryAcquire() {
+        while (true) {
+            long now = System.nanoTime();
+            long tat = theoreticalArrivalNanos.get();
+            long newTat = Math.max(tat, now) + emissionIntervalNanos;
+            long wait = newTat - now - burstToleranceNanos;
+            if (wait > 0) {
+                return wait;
+            }
+            if (theoreticalArrivalNanos.compareAndSet(tat, newTat)) {
+                return 0;
+            }
+        }
+    }
+
+    /**
+     * Returns a permit taken by {@link #tryAcquire()} for a request that was rejected afterwards.
+     */
+    public void refund() {
+        theoreticalArrivalNanos.addAndGet(-emissionIntervalNanos);
+    }
+
+    /**
+     * A bucket that has refilled completely carries no state and can be discarded.
+     */
+    public boolean isFull() {
+        return theoreticalArrivalNanos.get() - System.nanoTime() <= 0;
+    }
+}
@@ -0,0 +1,175 @@
+package com.crypto.ratelimit;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.servlet.HandlerInterceptor;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.security.Principal;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Admission control for trade submission: per-client and global token buckets plus an adaptive
+ * concurrency limit. Rejected requests fail fast with 429 and Retry-After instead of queueing.
+ * Clients are identified by the authenticated principal when there is one, otherwise by address:
+ * the last entry of {@code trustedClientHeader} when one is configured (the address the trusted
+ * proxy in front of the application saw), else the remote address. Behind a proxy the remote
+ * address is the proxy's, so without the header every client would share one bucket. Once
+ * {@code maxTrackedClients} clients hold state, new ones share a single overflow bucket.
+ */
+public class TradeAdmissionInterceptor implements HandlerInterceptor {
+
+    private static final String START_ATTRIBUTE = TradeAdmissionInterceptor.class.getName() + ".start";
+
+    private final TokenBucket globalBucket;
+    private final AdaptiveConcurrencyLimiter concurrencyLimiter;
+    private final ConcurrentHashMap<String, TokenBucket> clientBuckets = new ConcurrentHashMap<>();
+    private final TokenBucket overflowBucket;
+    // Guarded by clientBuckets
+    private long lastSweepNanos = System.nanoTime() - TimeUnit.SECONDS.toNanos(1);
+    private final double clientPermitsPerSecond;
+    private final int clientBurst;
+    private final int maxTrackedClients;
+    private final String trustedClientHeader;
+
+    private final AtomicLong accepted = new AtomicLong();
+    private final AtomicLong rejectedClientRate = new AtomicLong();
+    private final AtomicLong rejectedGlobalRate = new AtomicLong();
+    private final AtomicLong rejectedConcurrency = new AtomicLong();
+
+    public TradeAdmissionInterceptor(TokenBucket globalBucket,
+                                     AdaptiveConcurrencyLimiter concurrencyLimiter,
+                                     double clientPermitsPerSecond,
+                                     int clientBurst,
+                                     int maxTrackedClients,
+                                     String trustedClientHeader) {
+        this.globalBucket = globalBucket;
+        this.concurrencyLimiter = concurrencyLimiter;
+        this.clientPermitsPerSecond = clientPermitsPerSecond;
+        this.clientBurst = clientBurst;
+        this.maxTrackedClients = maxTrackedClients;
+        this.trustedClientHeader = trustedClientHeader == null || trustedClientHeader.isEmpty() ? null : trustedClientHeader;
+        this.overflowBucket = new TokenBucket(clientPermitsPerSecond, clientBurst);
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler)
+            throws IOException {
+        if (!"POST".equals(request.getMethod())) {
+            return true;
+        }
+
+        // Check the client's own bucket first so a noisy client cannot drain the global one
+        TokenBucket clientBucket = clientBucket(clientKey(request));
+        long wait = clientBucket.tryAcquire();
+        if (wait > 0) {
+            rejectedClientRate.incrementAndGet();
+            reject(response, wait, "Client rate limit exceeded");
+            return false;
+        }
+
+        // Permits already taken are handed back when a later check rejects the request
+        wait = globalBucket.tryAcquire();
+        if (wait > 0) {
+            clientBucket.refund();
+            rejectedGlobalRate.incrementAndGet();
+            reject(response, wait, "Trade rate limit exceeded");
+            return false;
+        }
+
+        if (!concurrencyLimiter.tryAcquire()) {
+            clientBucket.refund();
+            globalBucket.refund();
+            rejectedConcurrency.incrementAndGet();
+            reject(response, TimeUnit.SECONDS.toNanos(1), "Too many trades in flight");
+            return false;
+        }
+
+        accepted.incrementAndGet();
+        request.setAttribute(START_ATTRIBUTE, System.nanoTime());
+        return true;
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response,
+                                Object handler, Exception ex) {
+        Object start = request.getAttribute(START_ATTRIBUTE);
+        if (start != null) {
+            concurrencyLimiter.release(System.nanoTime() - (Long) start);
+        }
+    }
+
+    public Map<String, Object> getStatistics() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("accepted", accepted.get());
+        stats.put("rejectedClientRate", rejectedClientRate.get());
+        stats.put("rejectedGlobalRate", rejectedGlobalRate.get());
+        stats.put("rejectedConcurrency", rejectedConcurrency.get());
+        stats.put("concurrencyLimit", concurrencyLimiter.getLimit());
+        stats.put("inFlight", concurrencyLimiter.getInFlight());
+        stats.put("trackedClients", clientBuckets.size());
+        return stats;
+    }
+
+    // Prefixed so a user name can never collide with an address
+    private String clientKey(HttpServletRequest request) {
+        Principal principal = request.getUserPrincipal();
+        if (principal != null) {
+            return "user:" + principal.getName();
+        }
+        if (trustedClientHeader != null) {
+            String forwarded = request.getHeader(trustedClientHeader);
+            if (forwarded != null) {
+                // Earlier entries come from the client and could be anything; the proxy appends the last one
+                String address = forwarded.substring(forwarded.lastIndexOf(',') + 1).trim();
+                if (!address.isEmpty()) {
+                    return "addr:" + address;
+                }
+            }
+        }
+        return "addr:" + request.getRemoteAddr();
+    }
+
+    private TokenBucket clientBucket(String clientKey) {
+        TokenBucket bucket = clientBuckets.get(clientKey);
+        if (bucket != null) {
+            return bucket;
+        }
+        // New clients are added one at a time so the map never grows past the cap
+        synchronized (clientBuckets) {
+            bucket = clientBuckets.get(clientKey);
+            if (bucket != null) {
+                return bucket;
+            }
+            if (clientBuckets.size() >= maxTrackedClients) {
+                // Sweep at most once a second so a flood of new addresses cannot keep rescanning the map
+                long now = System.nanoTime();
+                if (now - lastSweepNanos >= TimeUnit.SECONDS.toNanos(1)) {
+                    lastSweepNanos = now;
+                    // Full buckets are indistinguishable from new ones, so dropping them loses nothing
+                    clientBuckets.values().removeIf(TokenBucket::isFull);
+                }
+                if (clientBuckets.size() >= maxTrackedClients) {
+                    return overflowBucket;
+                }
+            }
+            bucket = new TokenBucket(clientPermitsPerSecond, clientBurst);
+            clientBuckets.put(clientKey, bucket);
+            return bucket;
+        }
+    }
+
+    private void reject(HttpServletResponse response, long waitNanos, String message) throws IOException {
+        long retryAfterSeconds = Math.max(1, (waitNanos + TimeUnit.SECONDS.toNanos(1) - 1) / TimeUnit.SECONDS.toNanos(1));
+        response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+        response.setHeader("Retry-After", String.valueOf(retryAfterSeconds));
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.getWriter().write("{\"error\":\"" + message + "\"}");
+    }
+}
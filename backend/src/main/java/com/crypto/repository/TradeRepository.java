@@ -1,11 +1,18 @@
 package com.crypto.repository;
 
 import com.crypto.model.Trade;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
 @Repository
 public interface TradeRepository extends JpaRepository<Trade, Long> {
@@ -14,5 +21,24 @@ public interface TradeRepository extends JpaRepository<Trade, Long> {
     @Query("SELECT t FROM Trade t ORDER BY t.createdAt DESC")
     List<Trade> findAllOrderByCreatedAtDesc();
     
+    @Query("SELECT t FROM Trade t ORDER BY t.createdAt DESC")
+    List<Trade> findAllOrderByCreatedAtDesc(Pageable pageable);
+    
     List<Trade> findByStatusOrderByCreatedAtDesc(Trade.TradeStatus status);
+    
+    Optional<Trade> findByIdempotencyKey(String idempotencyKey);
+    
+    List<Trade> findByStatusInAndCreatedAtBeforeOrderByIdAsc(Collection<Trade.TradeStatus> statuses,
+                                                             LocalDateTime cutoff, Pageable pageable);
+    
+    // Conditional on the current status, so a trade that settled in the meantime is left alone
+    @Modifying
+    @Transactional
+    @Query("UPDATE Trade t SET t.status = :to WHERE t.id = :id AND t.status = :from")
+    int updateStatus(@Param("id") Long id, @Param("from") Trade.TradeStatus from, @Param("to") Trade.TradeStatus to);
+    
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM Trade t WHERE t.id IN :ids")
+    int deleteByIds(@Param("ids") Collection<Long> ids);
 }
@@ -0,0 +1,124 @@
+package com.crypto.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.security.SecureRandom;
+import java.util.EnumMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Monotonic change versions for portfolio and trade mutations, with the most recent changes kept
+ * in a bounded ring. Clients send back the version they last saw and receive only what changed.
+ * Readers should take the version before loading data, so a concurrent change is never missed.
+ * Versions restart at 0 on every boot, so clients see them as tokens prefixed with a random epoch
+ * for this boot; a token from an earlier boot or another instance asks for a full resync.
+ */
+@Service
+public class ChangeLogService {
+
+    public enum EntityType {
+        PORTFOLIO, TRADE
+    }
+
+    @Value("${trading.changelog.capacity:10000}")
+    private int capacity;
+
+    private final String epoch = Long.toString(new SecureRandom().nextLong() & Long.MAX_VALUE, 36);
+
+    private final AtomicLong version = new AtomicLong();
+
+    private final Map<EntityType, AtomicLong> latestVersions = new EnumMap<>(EntityType.class);
+
+    // Guarded by this
+    private Change[] ring;
+    private int next;
+    private int size;
+
+    public ChangeLogService() {
+        for (EntityType type : EntityType.values()) {
+            latestVersions.put(type, new AtomicLong());
+        }
+    }
+
+    public synchronized void record(EntityType type, String key) {
+        if (ring == null) {
+            ring = new Change[capacity];
+        }
+        long changeVersion = version.incrementAndGet();
+        ring[next] = new Change(changeVersion, type, key);
+        next = (next + 1) % ring.length;
+        size = Math.min(size + 1, ring.length);
+        latestVersions.get(type).set(changeVersion);
+    }
+
+    /**
+     * Latest version that changed the given entity type; 0 until the first change.
+     */
+    public long getVersion(EntityType type) {
+        return latestVersions.get(type).get();
+    }
+
+    /**
+     * Client-facing form of a version, valid only for this boot.
+     */
+    public String toToken(long version) {
+        return epoch + "-" + version;
+    }
+
+    /**
+     * Version carried by a token from {@link #toToken}, or -1 when the token is malformed or
+     * was issued by another boot.
+     */
+    public long fromToken(String token) {
+        if (token == null || !token.startsWith(epoch + "-")) {
+            return -1;
+        }
+        try {
+            return Long.parseLong(token.substring(epoch.length() + 1));
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    /**
+     * Keys of the given type changed after {@code since}, oldest first, or null when the client
+     * needs a full resync: the log no longer reaches back that far, or {@code since} is negative
+     * or ahead of every version this boot issued.
+     */
+    public synchronized Set<String> getChangedKeys(EntityType type, long since) {
+        Set<String> keys = new LinkedHashSet<>();
+        if (since > version.get()) {
+            return null;
+        }
+        if (since == version.get()) {
+            return keys;
+        }
+        long oldestRetained = size == 0 ? version.get() + 1 : ring[(next - size + ring.length) % ring.length].version;
+        if (since < 0 || since + 1 < oldestRetained) {
+            return null;
+        }
+        for (int i = 0; i < size; i++) {
+            Change change = ring[(next - size + i + ring.length) % ring.length];
+            if (change.version > since && change.type == type) {
+                keys.add(change.key);
+            }
+        }
+        return keys;
+    }
+
+    private static final class Change {
+        final long version;
+        final EntityType type;
+        final String key;
+
+        Change(long version, EntityType type, String key) {
+            this.version = version;
+            this.type = type;
+            this.key = key;
+        }
+    }
+}
@@ -1,15 +1,20 @@
 package com.crypto.service;
 
 import com.crypto.dto.CryptoPriceResponse;
+import com.crypto.jfr.PriceTickEvent;
 import com.crypto.model.Cryptocurrency;
 import com.crypto.repository.CryptocurrencyRepository;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
 import java.math.RoundingMode;
 import java.time.LocalDateTime;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
 
 @Service
 public class CryptocurrencyService {
@@ -17,6 +22,12 @@ public class CryptocurrencyService {
     @Autowired
     private CryptocurrencyRepository cryptocurrencyRepository;
     
+    @Autowired
+    private PriceHistoryService priceHistoryService;
+    
+    @Autowired
+    private PriceAlertService priceAlertService;
+    
     private final Random random = new Random();
     
     // Mock current prices - simulating real market data
@@ -27,6 +38,16 @@ public class CryptocurrencyService {
         put("solana", new BigDecimal("98.50"));
     }};
     
+    // Last quoted price per coin, readable without touching the database
+    private final Map<String, BigDecimal> latestPrices = new ConcurrentHashMap<>();
+    
+    // Last quote per coin as {price, 24h change}, and the coins quoted since the last write to the database
+    private final Map<String, BigDecimal[]> latestQuotes = new ConcurrentHashMap<>();
+    private final Set<String> unpersistedSymbols = ConcurrentHashMap.newKeySet();
+    
+    // Increases with every quote, so values derived from the latest prices can be versioned
+    private final AtomicLong quoteVersion = new AtomicLong();
+    
     private final Map<String, String> coinNames = new HashMap<String, String>() {{
         put("bitcoin", "Bitcoin");
         put("ethereum", "Ethereum");
@@ -36,6 +57,7 @@ public class CryptocurrencyService {
     
     public Map<String, CryptoPriceResponse> getCurrentPrices() {
         Map<String, CryptoPriceResponse> prices = new HashMap<>();
+        Map<String, Double> snapshot = new HashMap<>();
         
         for (Map.Entry<String, BigDecimal> entry : basePrices.entrySet()) {
             String coinId = entry.getKey();
@@ -59,10 +81,12 @@ public class CryptocurrencyService {
             
             prices.put(coinId, response);
             
-            // Update database
-            updateCryptocurrencyPrice(coinId, coinNames.get(coinId), currentPrice, change24hPercent);
+            recordQuote(coinId, currentPrice, change24hPercent);
+            snapshot.put(coinId, currentPrice.doubleValue());
         }
         
+        // Only quotes of every coin at once go into the history, so the series stay aligned
+        priceHistoryService.record(snapshot);
         return prices;
     }
     
@@ -87,25 +111,79 @@ public class CryptocurrencyService {
             change24hPercent
         );
         
-        updateCryptocurrencyPrice(coinId, coinNames.get(coinId), currentPrice, change24hPercent);
+        recordQuote(coinId, currentPrice, change24hPercent);
         
         return response;
     }
     
-    private void updateCryptocurrencyPrice(String symbol, String name, BigDecimal price, BigDecimal change24h) {
-        Optional<Cryptocurrency> existing = cryptocurrencyRepository.findBySymbol(symbol);
-        
-        Cryptocurrency crypto;
-        if (existing.isPresent()) {
-            crypto = existing.get();
-            crypto.setCurrentPrice(price);
-            crypto.setChangePercent24h(change24h);
-            crypto.setLastUpdated(LocalDateTime.now());
-        } else {
-            crypto = new Cryptocurrency(symbol, name, price, change24h);
+    public Set<String> getSupportedSymbols() {
+        return Collections.unmodifiableSet(basePrices.keySet());
+    }
+    
+    public long getQuoteVersion() {
+        return quoteVersion.get();
+    }
+    
+    public BigDecimal getLatestPrice(String symbol) {
+        String coinId = symbol.toLowerCase();
+        BigDecimal latest = latestPrices.get(coinId);
+        return latest != null ? latest : basePrices.get(coinId);
+    }
+    
+    /**
+     * Writes the latest quote of every coin quoted since the last run to the cryptocurrencies
+     * table in one transaction. Quotes are served from memory, so reads never write; persisting
+     * every quote would also invalidate the cached cryptocurrency queries on each price read.
+     */
+    @Scheduled(initialDelayString = "${trading.prices.persist-interval-ms:5000}",
+               fixedDelayString = "${trading.prices.persist-interval-ms:5000}")
+    @Transactional
+    public void persistLatestQuotes() {
+        if (unpersistedSymbols.isEmpty()) {
+            return;
+        }
+        Map<String, Cryptocurrency> stored = new HashMap<>();
+        for (Cryptocurrency crypto : cryptocurrencyRepository.findAll()) {
+            stored.put(crypto.getSymbol(), crypto);
         }
         
-        cryptocurrencyRepository.save(crypto);
+        for (String symbol : new ArrayList<>(unpersistedSymbols)) {
+            unpersistedSymbols.remove(symbol);
+            BigDecimal[] quote = latestQuotes.get(symbol);
+            Cryptocurrency crypto = stored.get(symbol);
+            if (crypto != null) {
+                crypto.setCurrentPrice(quote[0]);
+                crypto.setChangePercent24h(quote[1]);
+                crypto.setLastUpdated(LocalDateTime.now());
+            } else {
+                cryptocurrencyRepository.save(new Cryptocurrency(symbol, coinNames.get(symbol), quote[0], quote[1]));
+            }
+        }
+    }
+    
+    private void recordQuote(String symbol, BigDecimal price, BigDecimal change24h) {
+        PriceTickEvent event = new PriceTickEvent();
+        event.begin();
+        event.setSymbol(symbol);
+        event.setPrice(price.doubleValue());
+        event.setStatus("ERROR");
+        try {
+            BigDecimal previous = latestPrices.put(symbol, price);
+            latestQuotes.put(symbol, new BigDecimal[] {price, change24h});
+            unpersistedSymbols.add(symbol);
+            quoteVersion.incrementAndGet();
+            priceAlertService.onTick(symbol, price.doubleValue());
+            event.setStatus(previous == null ? "FIRST" : direction(previous.compareTo(price)));
+        } finally {
+            event.commit();
+        }
+    }
+    
+    private static String direction(int previousComparedToCurrent) {
+        if (previousComparedToCurrent < 0) {
+            return "UP";
+        }
+        return previousComparedToCurrent > 0 ? "DOWN" : "UNCHANGED";
     }
     
     public List<Cryptocurrency> getAllCryptocurrencies() {
@@ -0,0 +1,44 @@
+package com.crypto.service;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import javax.persistence.EntityManagerFactory;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+@Service
+public class HibernateCacheService {
+    
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+    
+    public Map<String, Object> getStatistics() {
+        Statistics statistics = sessionFactory().getStatistics();
+        
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("secondLevelCacheHits", statistics.getSecondLevelCacheHitCount());
+        stats.put("secondLevelCacheMisses", statistics.getSecondLevelCacheMissCount());
+        stats.put("secondLevelCachePuts", statistics.getSecondLevelCachePutCount());
+        stats.put("queryCacheHits", statistics.getQueryCacheHitCount());
+        stats.put("queryCacheMisses", statistics.getQueryCacheMissCount());
+        stats.put("queryCachePuts", statistics.getQueryCachePutCount());
+        stats.put("queryExecutions", statistics.getQueryExecutionCount());
+        stats.put("preparedStatements", statistics.getPrepareStatementCount());
+        return stats;
+    }
+    
+    /**
+     * Hibernate invalidates cached entities and queries on its own writes. This is for writes
+     * that bypass it, such as edits made through the H2 console.
+     */
+    public void evictAll() {
+        sessionFactory().getCache().evictAllRegions();
+    }
+    
+    private SessionFactory sessionFactory() {
+        return entityManagerFactory.unwrap(SessionFactory.class);
+    }
+}
@@ -0,0 +1,157 @@
+package com.crypto.service;
+
+import com.crypto.dto.PortfolioAnalyticsResponse;
+import com.crypto.model.Portfolio;
+import com.crypto.repository.PortfolioRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.IntStream;
+
+/**
+ * Allocation, volatility, correlation and value-at-risk over the recorded price history.
+ * Per-symbol work runs in parallel on the fork-join pool, and results are cached until the
+ * price history or the holdings change. Volatilities are per snapshot in the history. Holdings
+ * whose coin lacks two aligned snapshots are left out and listed as excluded.
+ */
+@Service
+public class PortfolioAnalyticsService {
+
+    private static final int MAX_CACHED_RESULTS = 64;
+
+    @Autowired
+    private PortfolioRepository portfolioRepository;
+
+    @Autowired
+    private PriceHistoryService priceHistoryService;
+
+    private final Map<String, PortfolioAnalyticsResponse> cache = new ConcurrentHashMap<>();
+
+    public PortfolioAnalyticsResponse getAnalytics(int window, double confidence) {
+        List<Portfolio> holdings = portfolioRepository.findAll();
+        long version = priceHistoryService.getVersion();
+
+        String key = cacheKey(version, window, confidence, holdings);
+        PortfolioAnalyticsResponse cached = cache.get(key);
+        if (cached != null) {
+            return cached;
+        }
+
+        PortfolioAnalyticsResponse result = compute(holdings, version, window, confidence);
+        if (cache.size() >= MAX_CACHED_RESULTS) {
+            // Entries for older versions are never read again
+            cache.clear();
+        }
+        cache.put(key, result);
+        return result;
+    }
+
+    private PortfolioAnalyticsResponse compute(List<Portfolio> holdings, long version,
+                                               int window, double confidence) {
+        List<Portfolio> covered = new ArrayList<>();
+        List<String> excluded = new ArrayList<>();
+        for (Portfolio holding : holdings) {
+            if (priceHistoryService.getPrices(holding.getSymbol(), 2).length == 2) {
+                covered.add(holding);
+            } else {
+                excluded.add(holding.getSymbol());
+            }
+        }
+
+        int n = covered.size();
+        String[] symbols = new String[n];
+        for (int i = 0; i < n; i++) {
+            symbols[i] = covered.get(i).getSymbol();
+        }
+        // One snapshot range for all coins, so return t of every series covers the same interval
+        double[][] prices = priceHistoryService.getAlignedPrices(Arrays.asList(symbols), window + 1);
+        double[][] returns = new double[n][];
+        double[] values = new double[n];
+        double[] means = new double[n];
+        double[] deviations = new double[n];
+
+        IntStream.range(0, n).parallel().forEach(i -> {
+            Portfolio holding = covered.get(i);
+            double[] p = prices[i];
+            // A snapshot recorded since the check above can leave the range empty
+            double lastPrice = p.length > 0 ? p[p.length - 1] : holding.getAveragePrice().doubleValue();
+            values[i] = holding.getQuantity().doubleValue() * lastPrice;
+            returns[i] = RiskStatistics.logReturns(p);
+            means[i] = RiskStatistics.mean(returns[i]);
+            deviations[i] = RiskStatistics.standardDeviation(returns[i], means[i]);
+        });
+
+        double[][] correlation = new double[n][n];
+        IntStream.range(0, n).parallel().forEach(i -> {
+            correlation[i][i] = 1;
+            for (int j = i + 1; j < n; j++) {
+                double c = RiskStatistics.correlation(returns[i], means[i], deviations[i],
+                        returns[j], means[j], deviations[j]);
+                correlation[i][j] = c;
+                correlation[j][i] = c;
+            }
+        });
+
+        double totalValue = Arrays.stream(values).sum();
+        double[] weights = new double[n];
+        for (int i = 0; i < n; i++) {
+            weights[i] = totalValue > 0 ? values[i] / totalValue : 0;
+        }
+
+        int length = n > 0 ? returns[0].length : 0;
+        double[] portfolioReturns = new double[length];
+        IntStream.range(0, length).parallel().forEach(t -> {
+            double r = 0;
+            for (int i = 0; i < n; i++) {
+                r += weights[i] * returns[i][t];
+            }
+            portfolioReturns[t] = r;
+        });
+        double portfolioMean = RiskStatistics.mean(portfolioReturns);
+        double portfolioDeviation = RiskStatistics.standardDeviation(portfolioReturns, portfolioMean);
+
+        Map<String, Double> allocation = new LinkedHashMap<>();
+        Map<String, Double> volatility = new LinkedHashMap<>();
+        for (int i = 0; i < n; i++) {
+            allocation.put(symbols[i], weights[i]);
+            volatility.put(symbols[i], deviations[i]);
+        }
+
+        PortfolioAnalyticsResponse response = new PortfolioAnalyticsResponse();
+        response.setPriceHistoryVersion(version);
+        response.setWindow(length);
+        response.setConfidence(confidence);
+        response.setTotalValue(money(totalValue));
+        response.setSymbols(new ArrayList<>(Arrays.asList(symbols)));
+        response.setExcludedSymbols(excluded);
+        response.setAllocation(allocation);
+        response.setVolatility(volatility);
+        response.setPortfolioVolatility(portfolioDeviation);
+        response.setCorrelationMatrix(correlation);
+        response.setHistoricalVaR(money(RiskStatistics.historicalVaR(portfolioReturns, confidence) * totalValue));
+        response.setParametricVaR(money(
+                RiskStatistics.parametricVaR(portfolioMean, portfolioDeviation, confidence) * totalValue));
+        return response;
+    }
+
+    private String cacheKey(long version, int window, double confidence, List<Portfolio> holdings) {
+        StringBuilder key = new StringBuilder()
+                .append(version).append('|').append(window).append('|').append(confidence);
+        for (Portfolio holding : holdings) {
+            key.append('|').append(holding.getSymbol()).append(':').append(holding.getQuantity().toPlainString());
+        }
+        return key.toString();
+    }
+
+    private BigDecimal money(double value) {
+        return BigDecimal.valueOf(value).setScale(2, RoundingMode.HALF_UP);
+    }
+}
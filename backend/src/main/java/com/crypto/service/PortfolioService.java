@@ -1,6 +1,7 @@
 package com.crypto.service;
 
-import com.crypto.dto.CryptoPriceResponse;
+import com.crypto.dto.DeltaResponse;
+import com.crypto.jfr.PortfolioUpdateEvent;
 import com.crypto.model.Portfolio;
 import com.crypto.model.Trade;
 import com.crypto.repository.PortfolioRepository;
@@ -10,8 +11,13 @@ import org.springframework.stereotype.Service;
 import java.math.BigDecimal;
 import java.math.RoundingMode;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 
 @Service
 public class PortfolioService {
@@ -22,7 +28,18 @@ public class PortfolioService {
     @Autowired
     private CryptocurrencyService cryptocurrencyService;
     
+    @Autowired
+    private RequestCoalescer requestCoalescer;
+    
+    @Autowired
+    private ChangeLogService changeLogService;
+    
+    // Concurrent callers share one valuation; the holdings are only read after this returns
     public List<Portfolio> getPortfolio() {
+        return requestCoalescer.execute("portfolio", this::loadPortfolio);
+    }
+    
+    private List<Portfolio> loadPortfolio() {
         List<Portfolio> portfolio = portfolioRepository.findAll();
         
         // Update current values with latest prices
@@ -30,7 +47,8 @@ public class PortfolioService {
             updateCurrentValue(holding);
         }
         
-        return portfolio;
+        // Shared by every coalesced caller
+        return Collections.unmodifiableList(portfolio);
     }
     
     public Portfolio getPortfolioBySymbol(String symbol) {
@@ -43,25 +61,90 @@ public class PortfolioService {
         return null;
     }
     
+    /**
+     * Token for the current holdings: the change log token followed by the quote version, since
+     * current values move with every quote even when no holding changed.
+     */
+    public String getChangeToken() {
+        return changeToken(changeLogService.getVersion(ChangeLogService.EntityType.PORTFOLIO),
+                cryptocurrencyService.getQuoteVersion());
+    }
+    
+    /**
+     * Holdings changed after the given change token, plus symbols whose holding was removed.
+     * Falls back to the full portfolio when the change log no longer covers that token or a
+     * quote arrived since, because a new quote revalues every holding.
+     */
+    public DeltaResponse<Portfolio> getPortfolioChanges(String since) {
+        long version = changeLogService.getVersion(ChangeLogService.EntityType.PORTFOLIO);
+        long priceVersion = cryptocurrencyService.getQuoteVersion();
+        String token = changeToken(version, priceVersion);
+        
+        // The quote version follows the last dash, the change log token precedes it
+        int split = since.lastIndexOf('-');
+        boolean samePrices = split > 0 && since.substring(split + 1).equals(Long.toString(priceVersion));
+        Set<String> changedSymbols = samePrices
+                ? changeLogService.getChangedKeys(ChangeLogService.EntityType.PORTFOLIO,
+                        changeLogService.fromToken(since.substring(0, split)))
+                : null;
+        if (changedSymbols == null) {
+            return new DeltaResponse<>(token, true, getPortfolio(), Collections.emptyList());
+        }
+        
+        // One query for all holdings rather than a lookup per changed symbol
+        Map<String, Portfolio> holdings = new HashMap<>();
+        for (Portfolio holding : getPortfolio()) {
+            holdings.put(holding.getSymbol(), holding);
+        }
+        
+        List<Portfolio> changed = new ArrayList<>();
+        List<String> removed = new ArrayList<>();
+        for (String symbol : changedSymbols) {
+            Portfolio holding = holdings.get(symbol);
+            if (holding != null) {
+                changed.add(holding);
+            } else {
+                removed.add(symbol);
+            }
+        }
+        return new DeltaResponse<>(token, false, changed, removed);
+    }
+    
+    private String changeToken(long version, long priceVersion) {
+        return changeLogService.toToken(version) + "-" + priceVersion;
+    }
+    
     public BigDecimal getTotalPortfolioValue() {
-        List<Portfolio> portfolio = getPortfolio();
-        return portfolio.stream()
-                .map(Portfolio::getCurrentValue)
-                .reduce(BigDecimal.ZERO, BigDecimal::add);
+        return requestCoalescer.execute("portfolio-total-value", () -> {
+            List<Portfolio> portfolio = getPortfolio();
+            return portfolio.stream()
+                    .map(Portfolio::getCurrentValue)
+                    .reduce(BigDecimal.ZERO, BigDecimal::add);
+        });
     }
     
     public void updatePortfolioFromTrade(Trade trade) {
-        Optional<Portfolio> existingHolding = portfolioRepository.findBySymbol(trade.getSymbol());
-        
-        if (existingHolding.isPresent()) {
-            Portfolio holding = existingHolding.get();
-            updateExistingHolding(holding, trade);
-        } else {
-            createNewHolding(trade);
+        PortfolioUpdateEvent event = new PortfolioUpdateEvent();
+        event.begin();
+        event.setSymbol(trade.getSymbol());
+        event.setStatus("ERROR");
+        try {
+            Optional<Portfolio> existingHolding = portfolioRepository.findBySymbol(trade.getSymbol());
+            
+            String status;
+            if (existingHolding.isPresent()) {
+                Portfolio holding = existingHolding.get();
+                status = updateExistingHolding(holding, trade);
+            } else {
+                status = createNewHolding(trade);
+            }
+            event.setStatus(status);
+        } finally {
+            event.commit();
         }
     }
     
-    private void updateExistingHolding(Portfolio holding, Trade trade) {
+    private String updateExistingHolding(Portfolio holding, Trade trade) {
         BigDecimal currentQuantity = holding.getQuantity();
         BigDecimal currentAvgPrice = holding.getAveragePrice();
         BigDecimal tradeAmount = trade.getAmount();
@@ -82,7 +165,8 @@ public class PortfolioService {
             if (newQuantity.compareTo(BigDecimal.ZERO) <= 0) {
                 // If selling all or more than owned, remove the holding
                 portfolioRepository.delete(holding);
-                return;
+                changeLogService.record(ChangeLogService.EntityType.PORTFOLIO, holding.getSymbol());
+                return "REMOVED";
             }
             holding.setQuantity(newQuantity);
         }
@@ -90,9 +174,11 @@ public class PortfolioService {
         updateCurrentValue(holding);
         holding.setLastUpdated(LocalDateTime.now());
         portfolioRepository.save(holding);
+        changeLogService.record(ChangeLogService.EntityType.PORTFOLIO, holding.getSymbol());
+        return "UPDATED";
     }
     
-    private void createNewHolding(Trade trade) {
+    private String createNewHolding(Trade trade) {
         if (trade.getType() == Trade.TradeType.BUY) {
             Portfolio newHolding = new Portfolio(
                 trade.getSymbol(),
@@ -101,15 +187,17 @@ public class PortfolioService {
             );
             updateCurrentValue(newHolding);
             portfolioRepository.save(newHolding);
+            changeLogService.record(ChangeLogService.EntityType.PORTFOLIO, newHolding.getSymbol());
+            return "CREATED";
         }
         // Ignore sell orders for assets not in portfolio
+        return "IGNORED";
     }
     
     private void updateCurrentValue(Portfolio holding) {
-        // Get current market price
-        CryptoPriceResponse priceResponse = cryptocurrencyService.getPriceBySymbol(holding.getSymbol());
-        if (priceResponse != null) {
-            BigDecimal currentMarketPrice = priceResponse.getUsd();
+        // Value at the latest quoted price; quoting afresh per holding cost a SELECT and an UPDATE each
+        BigDecimal currentMarketPrice = cryptocurrencyService.getLatestPrice(holding.getSymbol());
+        if (currentMarketPrice != null) {
             BigDecimal currentValue = holding.getQuantity().multiply(currentMarketPrice);
             holding.setCurrentValue(currentValue);
         } else {
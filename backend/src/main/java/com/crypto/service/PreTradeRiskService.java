@@ -0,0 +1,115 @@
+package com.crypto.service;
+
+import com.crypto.dto.TradeRequest;
+import com.crypto.model.Portfolio;
+import com.crypto.model.Trade;
+import com.crypto.repository.PortfolioRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Validates orders against in-memory positions and the latest price snapshot before any
+ * database work. Quantity for a SELL is reserved at check time so concurrent sells cannot
+ * oversell a holding; it is handed back if the trade fails.
+ */
+@Service
+public class PreTradeRiskService {
+
+    private static final BigDecimal HUNDRED = new BigDecimal("100");
+
+    @Autowired
+    private PortfolioRepository portfolioRepository;
+
+    @Autowired
+    private CryptocurrencyService cryptocurrencyService;
+
+    @Value("${trading.risk.max-notional:1000000}")
+    private BigDecimal maxNotional;
+
+    @Value("${trading.risk.price-band-percent:10}")
+    private BigDecimal priceBandPercent;
+
+    private final Map<String, BigDecimal> availableQuantities = new ConcurrentHashMap<>();
+
+    private volatile boolean positionsLoaded;
+
+    public void checkAndReserve(TradeRequest request) {
+        // Loaded before any trade writes, so the snapshot never misses or double counts one
+        ensurePositionsLoaded();
+
+        String symbol = request.getSymbol().toLowerCase();
+        BigDecimal amount = request.getAmount();
+        BigDecimal price = request.getPrice();
+
+        BigDecimal marketPrice = cryptocurrencyService.getLatestPrice(symbol);
+        if (marketPrice == null) {
+            throw new TradeRejectedException("Unknown symbol: " + symbol);
+        }
+
+        BigDecimal notional = amount.multiply(price);
+        if (notional.compareTo(maxNotional) > 0) {
+            throw new TradeRejectedException("Notional " + notional.toPlainString()
+                    + " exceeds limit of " + maxNotional.toPlainString());
+        }
+
+        BigDecimal deviationPercent = price.subtract(marketPrice).abs()
+                .multiply(HUNDRED)
+                .divide(marketPrice, 4, RoundingMode.HALF_UP);
+        if (deviationPercent.compareTo(priceBandPercent) > 0) {
+            throw new TradeRejectedException("Price " + price.toPlainString() + " is more than "
+                    + priceBandPercent.toPlainString() + "% away from market price " + marketPrice.toPlainString());
+        }
+
+        if (request.getType() == Trade.TradeType.SELL) {
+            reserve(symbol, amount);
+        }
+    }
+
+    public void onTradeCompleted(Trade trade) {
+        if (trade.getType() == Trade.TradeType.BUY) {
+            availableQuantities.merge(trade.getSymbol(), trade.getAmount(), BigDecimal::add);
+        }
+    }
+
+    public void onTradeFailed(Trade trade) {
+        if (trade.getType() == Trade.TradeType.SELL) {
+            availableQuantities.merge(trade.getSymbol(), trade.getAmount(), BigDecimal::add);
+        }
+    }
+
+    private void reserve(String symbol, BigDecimal amount) {
+        boolean[] reserved = new boolean[1];
+        availableQuantities.computeIfPresent(symbol, (key, available) -> {
+            if (available.compareTo(amount) < 0) {
+                return available;
+            }
+            reserved[0] = true;
+            return available.subtract(amount);
+        });
+        if (!reserved[0]) {
+            BigDecimal available = availableQuantities.getOrDefault(symbol, BigDecimal.ZERO);
+            throw new TradeRejectedException("Insufficient " + symbol + " holding: requested "
+                    + amount.toPlainString() + ", available " + available.toPlainString());
+        }
+    }
+
+    private void ensurePositionsLoaded() {
+        if (positionsLoaded) {
+            return;
+        }
+        synchronized (this) {
+            if (!positionsLoaded) {
+                for (Portfolio holding : portfolioRepository.findAll()) {
+                    availableQuantities.merge(holding.getSymbol(), holding.getQuantity(), BigDecimal::add);
+                }
+                positionsLoaded = true;
+            }
+        }
+    }
+}
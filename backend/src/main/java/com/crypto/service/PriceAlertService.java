@@ -0,0 +1,118 @@
+package com.crypto.service;
+
+import com.crypto.alert.AlertNotification;
+import com.crypto.alert.PriceAlert;
+import com.crypto.alert.SymbolAlertBook;
+import com.crypto.dto.AlertRequest;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Evaluates price alerts on every quote. Each tick only visits the alerts it crossed; fired alerts
+ * are queued as one batch per tick and handed out in batches by {@link #drainNotifications(int)}.
+ */
+@Service
+public class PriceAlertService {
+    
+    private static final int MAX_PENDING_NOTIFICATIONS = 100_000;
+    
+    private final AtomicLong nextId = new AtomicLong(1);
+    
+    private final Map<Long, PriceAlert> alerts = new ConcurrentHashMap<>();
+    
+    private final Map<String, SymbolAlertBook> books = new ConcurrentHashMap<>();
+    
+    private final BlockingQueue<AlertNotification> notifications = new ArrayBlockingQueue<>(MAX_PENDING_NOTIFICATIONS);
+    
+    private final AtomicLong droppedNotifications = new AtomicLong();
+    
+    public PriceAlert createAlert(AlertRequest request) {
+        PriceAlert alert = new PriceAlert(
+            nextId.getAndIncrement(),
+            request.getSymbol().toLowerCase(),
+            request.getCondition(),
+            request.getThreshold().doubleValue(),
+            request.getWindowMinutes(),
+            request.isRearm()
+        );
+        
+        alerts.put(alert.getId(), alert);
+        SymbolAlertBook book = books.computeIfAbsent(alert.getSymbol(), s -> new SymbolAlertBook());
+        if (book.add(alert)) {
+            List<AlertNotification> batch = new ArrayList<>(1);
+            fire(alert, book.getLastPrice(), LocalDateTime.now(), batch);
+            publish(batch);
+        }
+        return alert;
+    }
+    
+    public List<PriceAlert> getAlerts() {
+        return new ArrayList<>(alerts.values());
+    }
+    
+    public boolean deleteAlert(long id) {
+        PriceAlert alert = alerts.remove(id);
+        if (alert == null) {
+            return false;
+        }
+        SymbolAlertBook book = books.get(alert.getSymbol());
+        if (book != null) {
+            book.remove(alert);
+        }
+        return true;
+    }
+    
+    public void onTick(String symbol, double price) {
+        SymbolAlertBook book = books.get(symbol);
+        if (book == null) {
+            return;
+        }
+        
+        LocalDateTime now = LocalDateTime.now();
+        List<AlertNotification> batch = new ArrayList<>();
+        book.onTick(price, System.currentTimeMillis(), (alertId, tickPrice) -> {
+            PriceAlert alert = alerts.get(alertId);
+            if (alert != null) {
+                fire(alert, tickPrice, now, batch);
+            }
+        });
+        publish(batch);
+    }
+    
+    public List<AlertNotification> drainNotifications(int max) {
+        List<AlertNotification> batch = new ArrayList<>(Math.min(max, notifications.size()));
+        notifications.drainTo(batch, max);
+        return batch;
+    }
+    
+    public long getDroppedNotifications() {
+        return droppedNotifications.get();
+    }
+    
+    private void fire(PriceAlert alert, double price, LocalDateTime now, List<AlertNotification> batch) {
+        alert.setLastTriggeredAt(now);
+        if (!alert.isRearm()) {
+            alerts.remove(alert.getId());
+        }
+        batch.add(new AlertNotification(alert, price, now));
+    }
+    
+    private void publish(List<AlertNotification> batch) {
+        for (AlertNotification notification : batch) {
+            // Keep the newest notifications when nobody is draining the queue
+            while (!notifications.offer(notification)) {
+                if (notifications.poll() != null) {
+                    droppedNotifications.incrementAndGet();
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,110 @@
+package com.crypto.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Keeps the most recent price snapshots in fixed-size primitive ring buffers, one per coin.
+ * A snapshot holds the prices of every coin quoted together, so all series share one time axis
+ * and returns line up index by index; a coin missing from a snapshot holds NaN there.
+ * The version increases with every snapshot so derived results can be cached against it.
+ */
+@Service
+public class PriceHistoryService {
+
+    @Value("${trading.analytics.history-size:1440}")
+    private int historySize;
+
+    // Guarded by this; slot i of every buffer belongs to the same snapshot
+    private final Map<String, double[]> series = new HashMap<>();
+    private int next;
+    private int size;
+
+    private final AtomicLong version = new AtomicLong();
+
+    /**
+     * Appends one snapshot of prices quoted at the same time.
+     */
+    public synchronized void record(Map<String, Double> prices) {
+        for (double[] buffer : series.values()) {
+            buffer[next] = Double.NaN;
+        }
+        for (Map.Entry<String, Double> price : prices.entrySet()) {
+            series.computeIfAbsent(price.getKey(), s -> emptyBuffer())[next] = price.getValue();
+        }
+        next = (next + 1) % historySize;
+        size = Math.min(size + 1, historySize);
+        version.incrementAndGet();
+    }
+
+    /**
+     * Returns up to {@code maxPoints} of the latest prices for the symbol, oldest first, stopping
+     * at the most recent snapshot that did not quote it.
+     */
+    public double[] getPrices(String symbol, int maxPoints) {
+        return getAlignedPrices(Collections.singletonList(symbol), maxPoints)[0];
+    }
+
+    /**
+     * Prices of the given symbols over the latest snapshots, at most {@code maxPoints}, that
+     * quoted all of them, oldest first. Rows follow the order of {@code symbols} and have the
+     * same length; a symbol missing from the latest snapshot leaves every row empty.
+     */
+    public synchronized double[][] getAlignedPrices(List<String> symbols, int maxPoints) {
+        double[][] buffers = new double[symbols.size()][];
+        for (int i = 0; i < buffers.length; i++) {
+            buffers[i] = series.get(symbols.get(i));
+        }
+
+        int count = 0;
+        int limit = Math.min(maxPoints, size);
+        while (count < limit && quotedByAll(buffers, (next - count - 1 + historySize) % historySize)) {
+            count++;
+        }
+
+        double[][] result = new double[buffers.length][count];
+        if (count == 0) {
+            return result;
+        }
+        int start = (next - count + historySize) % historySize;
+        int firstChunk = Math.min(count, historySize - start);
+        for (int i = 0; i < buffers.length; i++) {
+            System.arraycopy(buffers[i], start, result[i], 0, firstChunk);
+            System.arraycopy(buffers[i], 0, result[i], firstChunk, count - firstChunk);
+        }
+        return result;
+    }
+
+    public long getVersion() {
+        return version.get();
+    }
+
+    /**
+     * Snapshots kept; no history is longer than this.
+     */
+    public int getHistorySize() {
+        return historySize;
+    }
+
+    private double[] emptyBuffer() {
+        double[] buffer = new double[historySize];
+        Arrays.fill(buffer, Double.NaN);
+        return buffer;
+    }
+
+    private static boolean quotedByAll(double[][] buffers, int slot) {
+        for (double[] buffer : buffers) {
+            if (buffer == null || Double.isNaN(buffer[slot])) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
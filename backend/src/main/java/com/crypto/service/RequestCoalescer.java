@@ -0,0 +1,84 @@
+package com.crypto.service;
+
+import org.springframework.stereotype.Service;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Single-flight execution: concurrent callers with the same key share one in-flight computation
+ * and its result. Nothing is cached; the next call after completion computes afresh.
+ * Every caller receives the same result object, so suppliers should return immutable values.
+ */
+@Service
+public class RequestCoalescer {
+    
+    private final Map<String, CompletableFuture<Object>> inFlight = new ConcurrentHashMap<>();
+    
+    private final Map<String, Counters> counters = new ConcurrentHashMap<>();
+    
+    @SuppressWarnings("unchecked")
+    public <T> T execute(String key, Supplier<T> supplier) {
+        Counters keyCounters = counters.computeIfAbsent(key, k -> new Counters());
+        keyCounters.calls.incrementAndGet();
+        
+        CompletableFuture<Object> future = new CompletableFuture<>();
+        CompletableFuture<Object> existing = inFlight.putIfAbsent(key, future);
+        if (existing != null) {
+            return (T) await(existing);
+        }
+        
+        keyCounters.executions.incrementAndGet();
+        try {
+            T result = supplier.get();
+            future.complete(result);
+            return result;
+        } catch (Throwable e) {
+            // Errors and sneaky checked exceptions too, or waiting callers would block forever
+            future.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, future);
+        }
+    }
+    
+    public Map<String, Object> getStatistics() {
+        Map<String, Object> stats = new TreeMap<>();
+        counters.forEach((key, keyCounters) -> {
+            long calls = keyCounters.calls.get();
+            long executions = keyCounters.executions.get();
+            Map<String, Object> keyStats = new LinkedHashMap<>();
+            keyStats.put("calls", calls);
+            keyStats.put("executions", executions);
+            keyStats.put("coalesced", calls - executions);
+            keyStats.put("coalescingRatio", calls > 0 ? (double) (calls - executions) / calls : 0.0);
+            stats.put(key, keyStats);
+        });
+        return stats;
+    }
+    
+    private Object await(CompletableFuture<Object> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            if (e.getCause() instanceof Error) {
+                throw (Error) e.getCause();
+            }
+            throw e;
+        }
+    }
+    
+    private static final class Counters {
+        final AtomicLong calls = new AtomicLong();
+        final AtomicLong executions = new AtomicLong();
+    }
+}
@@ -0,0 +1,106 @@
+package com.crypto.service;
+
+import java.util.Arrays;
+
+/**
+ * Primitive-array statistics used by the portfolio analytics.
+ */
+final class RiskStatistics {
+
+    private RiskStatistics() {}
+
+    static double[] logReturns(double[] prices) {
+        if (prices.length < 2) {
+            return new double[0];
+        }
+        double[] returns = new double[prices.length - 1];
+        for (int i = 1; i < prices.length; i++) {
+            returns[i - 1] = Math.log(prices[i] / prices[i - 1]);
+        }
+        return returns;
+    }
+
+    static double mean(double[] values) {
+        if (values.length == 0) {
+            return 0;
+        }
+        double sum = 0;
+        for (double value : values) {
+            sum += value;
+        }
+        return sum / values.length;
+    }
+
+    static double standardDeviation(double[] values, double mean) {
+        if (values.length < 2) {
+            return 0;
+        }
+        double sumSquares = 0;
+        for (double value : values) {
+            double deviation = value - mean;
+            sumSquares += deviation * deviation;
+        }
+        return Math.sqrt(sumSquares / (values.length - 1));
+    }
+
+    static double correlation(double[] x, double meanX, double sdX,
+                              double[] y, double meanY, double sdY) {
+        if (x.length < 2 || sdX == 0 || sdY == 0) {
+            return 0;
+        }
+        double covariance = 0;
+        for (int i = 0; i < x.length; i++) {
+            covariance += (x[i] - meanX) * (y[i] - meanY);
+        }
+        covariance /= x.length - 1;
+        return covariance / (sdX * sdY);
+    }
+
+    /**
+     * Loss (as a positive return) not exceeded with the given confidence, read off the sorted returns.
+     */
+    static double historicalVaR(double[] returns, double confidence) {
+        if (returns.length == 0) {
+            return 0;
+        }
+        double[] sorted = returns.clone();
+        Arrays.sort(sorted);
+        // Epsilon keeps e.g. (1 - 0.9) * 10 from rounding down to index 0
+        int index = (int) Math.floor((1 - confidence) * sorted.length + 1e-9);
+        return Math.max(0, -sorted[Math.min(index, sorted.length - 1)]);
+    }
+
+    static double parametricVaR(double mean, double standardDeviation, double confidence) {
+        return Math.max(0, inverseNormal(confidence) * standardDeviation - mean);
+    }
+
+    /**
+     * Inverse of the standard normal CDF (Acklam's rational approximation, relative error below 1.2e-9).
+     */
+    static double inverseNormal(double p) {
+        final double[] a = {-3.969683028665376e+01, 2.209460984245205e+02, -2.759285104469687e+02,
+                1.383577518672690e+02, -3.066479806614716e+01, 2.506628277459239e+00};
+        final double[] b = {-5.447609879822406e+01, 1.615858368580409e+02, -1.556989798598866e+02,
+                6.680131188771972e+01, -1.328068155288572e+01};
+        final double[] c = {-7.784894002430293e-03, -3.223964580411365e-01, -2.400758277161838e+00,
+                -2.549732539343734e+00, 4.374664141464968e+00, 2.938163982698783e+00};
+        final double[] d = {7.784695709041462e-03, 3.224671290700398e-01, 2.445134137142996e+00,
+                3.754408661907416e+00};
+        final double low = 0.02425;
+
+        if (p < low) {
+            double q = Math.sqrt(-2 * Math.log(p));
+            return (((((c[0] * q + c[1]) * q + c[2]) * q + c[3]) * q + c[4]) * q + c[5])
+                    / ((((d[0] * q + d[1]) * q + d[2]) * q + d[3]) * q + 1);
+        }
+        if (p > 1 - low) {
+            double q = Math.sqrt(-2 * Math.log(1 - p));
+            return -(((((c[0] * q + c[1]) * q + c[2]) * q + c[3]) * q + c[4]) * q + c[5])
+                    / ((((d[0] * q + d[1]) * q + d[2]) * q + d[3]) * q + 1);
+        }
+        double q = p - 0.5;
+        double r = q * q;
+        return (((((a[0] * r + a[1]) * r + a[2]) * r + a[3]) * r + a[4]) * r + a[5]) * q
+                / (((((b[0] * r + b[1]) * r + b[2]) * r + b[3]) * r + b[4]) * r + 1);
+    }
+}
@@ -0,0 +1,198 @@
+package com.crypto.service;
+
+import com.crypto.archive.TradeColdStore;
+import com.crypto.archive.TradeSegment;
+import com.crypto.model.Trade;
+import com.crypto.repository.TradeRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.PostConstruct;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Paths;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * Moves settled trades older than {@code trading.archive.cutoff-days} out of the trades table into
+ * columnar segment files, keeping the hot table small. A segment is written and visible before its
+ * rows are deleted, so callers merging hot and cold results should prefer the hot copy of a trade.
+ */
+@Service
+public class TradeArchiveService {
+
+    private static final Logger log = LoggerFactory.getLogger(TradeArchiveService.class);
+
+    private static final Set<Trade.TradeStatus> SETTLED = Collections.unmodifiableSet(EnumSet.of(
+            Trade.TradeStatus.COMPLETED, Trade.TradeStatus.FAILED, Trade.TradeStatus.CANCELLED));
+
+    // IN lists are split so the DELETE stays a reasonable size
+    private static final int DELETE_CHUNK = 1000;
+
+    @Autowired
+    private TradeRepository tradeRepository;
+
+    @Value("${trading.archive.directory:trade-archive}")
+    private String directory;
+
+    @Value("${trading.archive.cutoff-days:30}")
+    private int cutoffDays;
+
+    @Value("${trading.archive.segment-rows:50000}")
+    private int segmentRows;
+
+    @Value("${trading.archive.reset-on-startup:true}")
+    private boolean resetOnStartup;
+
+    @Value("${spring.datasource.url:}")
+    private String datasourceUrl;
+
+    @Value("${spring.jpa.hibernate.ddl-auto:}")
+    private String ddlAuto;
+
+    private TradeColdStore coldStore;
+
+    private volatile LocalDateTime lastRunAt;
+    private volatile int lastRunArchived;
+    private volatile long lastRunMillis;
+
+    @PostConstruct
+    public void openColdStore() throws IOException {
+        // A recreated database issues ids that archived trades already use; merges and the resume
+        // check would then mistake new trades for archived ones
+        if (!resetOnStartup && (datasourceUrl.contains(":mem:")
+                || "create".equals(ddlAuto) || "create-drop".equals(ddlAuto))) {
+            throw new IllegalStateException("trading.archive.reset-on-startup=false needs a persistent database, but "
+                    + datasourceUrl + " with ddl-auto=" + ddlAuto + " starts empty; use the persistent profile");
+        }
+        coldStore = new TradeColdStore(Paths.get(directory), resetOnStartup);
+        log.info("Trade archive at {}: {} segments, {} trades", directory,
+                coldStore.getSegmentCount(), coldStore.getRowCount());
+    }
+
+    @Scheduled(initialDelayString = "${trading.archive.interval-ms:3600000}",
+               fixedDelayString = "${trading.archive.interval-ms:3600000}")
+    public void scheduledArchive() {
+        try {
+            archiveSettledTrades();
+        } catch (IOException | RuntimeException e) {
+            log.warn("Trade archiving failed; rows stay in the trades table until the next run", e);
+        }
+    }
+
+    /**
+     * Archives every settled trade created before the cutoff, one segment per
+     * {@code trading.archive.segment-rows} trades. Returns the number of trades moved.
+     */
+    public synchronized int archiveSettledTrades() throws IOException {
+        long start = System.nanoTime();
+        LocalDateTime cutoff = LocalDateTime.now().minusDays(cutoffDays);
+        int archived = 0;
+
+        List<Trade> batch;
+        do {
+            batch = tradeRepository.findByStatusInAndCreatedAtBeforeOrderByIdAsc(
+                    SETTLED, cutoff, PageRequest.of(0, segmentRows));
+
+            List<Trade> toWrite = new ArrayList<>(batch.size());
+            List<Long> toDelete = new ArrayList<>(batch.size());
+            // A previous run may have written the segment but stopped before deleting its rows
+            Set<Long> alreadyArchived = batch.isEmpty() || batch.get(0).getId() > coldStore.getMaxId()
+                    ? Collections.<Long>emptySet()
+                    : coldStore.findIds(batch.get(0).getId(), batch.get(batch.size() - 1).getId());
+            for (Trade trade : batch) {
+                if (alreadyArchived.contains(trade.getId())) {
+                    toDelete.add(trade.getId());
+                } else if (TradeSegment.canEncode(trade)) {
+                    toWrite.add(trade);
+                    toDelete.add(trade.getId());
+                }
+            }
+
+            if (!toWrite.isEmpty()) {
+                coldStore.append(toWrite);
+            }
+            for (int i = 0; i < toDelete.size(); i += DELETE_CHUNK) {
+                tradeRepository.deleteByIds(toDelete.subList(i, Math.min(i + DELETE_CHUNK, toDelete.size())));
+            }
+            archived += toWrite.size();
+            // Trades that cannot be encoded stay hot; stop rather than fetch them again forever
+            if (toDelete.isEmpty()) {
+                break;
+            }
+        } while (batch.size() == segmentRows);
+
+        lastRunAt = LocalDateTime.now();
+        lastRunArchived = archived;
+        lastRunMillis = (System.nanoTime() - start) / 1_000_000;
+        if (archived > 0) {
+            log.info("Archived {} settled trades created before {} in {} ms", archived, cutoff, lastRunMillis);
+        }
+        return archived;
+    }
+
+    public Optional<Trade> findById(Long id) {
+        try {
+            return coldStore.findById(id);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    public List<Trade> findBySymbol(String symbol) {
+        try {
+            return coldStore.findBySymbol(symbol);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    public List<Trade> findAll() {
+        try {
+            return coldStore.findAll();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    public List<Trade> findLatest(int limit) {
+        try {
+            return coldStore.findLatest(limit);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Creation time of the newest archived trade, or null if nothing has been archived.
+     */
+    public LocalDateTime getNewestArchivedAt() {
+        return coldStore.getNewestCreatedAt();
+    }
+
+    public Map<String, Object> getStatistics() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("segments", coldStore.getSegmentCount());
+        stats.put("archivedTrades", coldStore.getRowCount());
+        stats.put("bytesOnDisk", coldStore.getSizeBytes());
+        stats.put("hotTrades", tradeRepository.count());
+        stats.put("cutoffDays", cutoffDays);
+        stats.put("lastRunAt", lastRunAt);
+        stats.put("lastRunArchived", lastRunArchived);
+        stats.put("lastRunMillis", lastRunMillis);
+        return stats;
+    }
+}
@@ -0,0 +1,8 @@
+package com.crypto.service;
+
+public class TradeRejectedException extends RuntimeException {
+    
+    public TradeRejectedException(String message) {
+        super(message);
+    }
+}
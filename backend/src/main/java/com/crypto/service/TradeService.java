@@ -1,16 +1,29 @@
 package com.crypto.service;
 
+import com.crypto.dto.DeltaResponse;
 import com.crypto.dto.TradeRequest;
+import com.crypto.jfr.TradeExecutionEvent;
+import com.crypto.jfr.TradeSubmissionEvent;
 import com.crypto.model.Trade;
 import com.crypto.repository.TradeRepository;
+import com.github.benmanes.caffeine.cache.Cache;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 import java.util.Random;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 
 @Service
 public class TradeService {
@@ -21,67 +34,263 @@ public class TradeService {
     @Autowired
     private PortfolioService portfolioService;
     
+    @Autowired
+    private PreTradeRiskService preTradeRiskService;
+    
+    @Autowired
+    private Cache<String, CompletableFuture<Trade>> tradeIdempotencyCache;
+    
+    @Autowired
+    private ChangeLogService changeLogService;
+    
+    @Autowired
+    private TradeArchiveService tradeArchiveService;
+    
     private final Random random = new Random();
     
     public Trade createTrade(TradeRequest request) {
+        return createTrade(request, null);
+    }
+    
+    /**
+     * Creates the trade at most once per idempotency key. Retries get the original trade back,
+     * from memory while the key is cached and from the unique key column after that.
+     */
+    public Trade createTrade(TradeRequest request, String idempotencyKey) {
+        if (idempotencyKey == null) {
+            return submitTrade(request, null);
+        }
+        
+        CompletableFuture<Trade> pending = new CompletableFuture<>();
+        CompletableFuture<Trade> existing = tradeIdempotencyCache.asMap().putIfAbsent(idempotencyKey, pending);
+        Trade trade;
+        if (existing != null) {
+            trade = await(existing);
+        } else {
+            try {
+                trade = tradeRepository.findByIdempotencyKey(idempotencyKey)
+                        .orElseGet(() -> submitIdempotentTrade(request, idempotencyKey));
+                pending.complete(trade);
+            } catch (RuntimeException e) {
+                // Failed attempts are not remembered so the client can retry them
+                tradeIdempotencyCache.asMap().remove(idempotencyKey, pending);
+                pending.completeExceptionally(e);
+                throw e;
+            }
+        }
+        
+        if (!matches(trade, request)) {
+            throw new TradeRejectedException("Idempotency-Key " + idempotencyKey + " was already used for a different trade");
+        }
+        return trade;
+    }
+    
+    private Trade submitIdempotentTrade(TradeRequest request, String idempotencyKey) {
+        try {
+            return submitTrade(request, idempotencyKey);
+        } catch (DataIntegrityViolationException e) {
+            // Another instance stored the key first
+            return tradeRepository.findByIdempotencyKey(idempotencyKey).orElseThrow(() -> e);
+        }
+    }
+    
+    private Trade submitTrade(TradeRequest request, String idempotencyKey) {
+        TradeSubmissionEvent event = new TradeSubmissionEvent();
+        event.begin();
+        try {
+            Trade trade = persistAndExecute(request, idempotencyKey);
+            event.setStatus(trade.getStatus().name());
+            return trade;
+        } catch (RuntimeException e) {
+            event.setStatus(e instanceof TradeRejectedException ? "REJECTED" : e.getClass().getSimpleName());
+            throw e;
+        } finally {
+            // Skip building the fields when no recording wants this event
+            if (event.shouldCommit()) {
+                event.setSymbol(request.getSymbol().toLowerCase());
+                event.setType(String.valueOf(request.getType()));
+                event.commit();
+            }
+        }
+    }
+    
+    private Trade persistAndExecute(TradeRequest request, String idempotencyKey) {
+        // Reject invalid orders before any database work
+        preTradeRiskService.checkAndReserve(request);
+        
         Trade trade = new Trade(
             request.getSymbol().toLowerCase(),
             request.getType(),
             request.getAmount(),
             request.getPrice()
         );
+        trade.setIdempotencyKey(idempotencyKey);
         
-        Trade savedTrade = tradeRepository.save(trade);
+        Trade savedTrade;
+        // Set once the holding is saved; each repository call commits on its own, so a later
+        // failure does not undo that write
+        boolean[] holdingUpdated = new boolean[1];
+        try {
+            savedTrade = tradeRepository.save(trade);
+            
+            // Simulate trade execution after a short delay
+            executeTrade(savedTrade, holdingUpdated);
+        } catch (RuntimeException e) {
+            if (holdingUpdated[0]) {
+                // The stored holding already reflects the trade, so a SELL reservation stays taken
+                preTradeRiskService.onTradeCompleted(trade);
+            } else {
+                // Hand back any quantity reserved for this order
+                preTradeRiskService.onTradeFailed(trade);
+            }
+            throw e;
+        }
         
-        // Simulate trade execution after a short delay
-        executeTrade(savedTrade);
+        // The in-memory book follows the stored trade, so it only changes once the final status is saved
+        if (savedTrade.getStatus() == Trade.TradeStatus.COMPLETED) {
+            preTradeRiskService.onTradeCompleted(savedTrade);
+        } else {
+            preTradeRiskService.onTradeFailed(savedTrade);
+        }
+        changeLogService.record(ChangeLogService.EntityType.TRADE, savedTrade.getId().toString());
         
         return savedTrade;
     }
     
-    private void executeTrade(Trade trade) {
-        // Simulate 90% success rate
-        boolean success = random.nextDouble() < 0.9;
-        
-        if (success) {
-            trade.setStatus(Trade.TradeStatus.COMPLETED);
-            trade.setExecutedAt(LocalDateTime.now());
+    private Trade await(CompletableFuture<Trade> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw e;
+        }
+    }
+    
+    private boolean matches(Trade trade, TradeRequest request) {
+        return trade.getSymbol().equals(request.getSymbol().toLowerCase())
+                && trade.getType() == request.getType()
+                && trade.getAmount().compareTo(request.getAmount()) == 0
+                && trade.getPrice().compareTo(request.getPrice()) == 0;
+    }
+    
+    private void executeTrade(Trade trade, boolean[] holdingUpdated) {
+        TradeExecutionEvent event = new TradeExecutionEvent();
+        event.begin();
+        event.setSymbol(trade.getSymbol());
+        event.setStatus("ERROR");
+        try {
+            // Simulate 90% success rate
+            boolean success = random.nextDouble() < 0.9;
             
-            // Update portfolio
-            portfolioService.updatePortfolioFromTrade(trade);
-        } else {
-            trade.setStatus(Trade.TradeStatus.FAILED);
+            if (success) {
+                trade.setStatus(Trade.TradeStatus.COMPLETED);
+                trade.setExecutedAt(LocalDateTime.now());
+                
+                // Update portfolio
+                portfolioService.updatePortfolioFromTrade(trade);
+                holdingUpdated[0] = true;
+            } else {
+                trade.setStatus(Trade.TradeStatus.FAILED);
+            }
+            
+            tradeRepository.save(trade);
+            event.setStatus(trade.getStatus().name());
+        } finally {
+            event.commit();
         }
-        
-        tradeRepository.save(trade);
     }
     
     public List<Trade> getAllTrades() {
-        return tradeRepository.findAllOrderByCreatedAtDesc();
+        return mergeHistory(tradeRepository.findAllOrderByCreatedAtDesc(), tradeArchiveService.findAll());
     }
     
     public List<Trade> getTradesBySymbol(String symbol) {
-        return tradeRepository.findBySymbolOrderByCreatedAtDesc(symbol.toLowerCase());
+        String normalized = symbol.toLowerCase();
+        return mergeHistory(tradeRepository.findBySymbolOrderByCreatedAtDesc(normalized),
+                tradeArchiveService.findBySymbol(normalized));
     }
     
     public Optional<Trade> getTradeById(Long id) {
-        return tradeRepository.findById(id);
+        Optional<Trade> trade = tradeRepository.findById(id);
+        return trade.isPresent() ? trade : tradeArchiveService.findById(id);
     }
     
     public List<Trade> getRecentTrades(int limit) {
-        List<Trade> allTrades = getAllTrades();
-        return allTrades.subList(0, Math.min(limit, allTrades.size()));
+        if (limit <= 0) {
+            return Collections.emptyList();
+        }
+        List<Trade> hot = tradeRepository.findAllOrderByCreatedAtDesc(PageRequest.of(0, limit));
+        // The archive is only read when it could hold one of the newest trades
+        LocalDateTime newestArchived = tradeArchiveService.getNewestArchivedAt();
+        boolean hotSuffices = newestArchived == null
+                || (hot.size() >= limit && newestArchived.isBefore(hot.get(limit - 1).getCreatedAt()));
+        List<Trade> trades = hotSuffices ? hot : mergeHistory(hot, tradeArchiveService.findLatest(limit));
+        return trades.subList(0, Math.min(limit, trades.size()));
     }
     
-    public Trade cancelTrade(Long tradeId) {
-        Optional<Trade> tradeOpt = tradeRepository.findById(tradeId);
-        if (tradeOpt.isPresent()) {
-            Trade trade = tradeOpt.get();
-            if (trade.getStatus() == Trade.TradeStatus.PENDING) {
-                trade.setStatus(Trade.TradeStatus.CANCELLED);
-                return tradeRepository.save(trade);
+    // Newest first; a trade still in the hot table while its segment is written wins over the archived copy
+    private List<Trade> mergeHistory(List<Trade> hot, List<Trade> archived) {
+        if (archived.isEmpty()) {
+            return hot;
+        }
+        Set<Long> hotIds = new HashSet<>();
+        for (Trade trade : hot) {
+            hotIds.add(trade.getId());
+        }
+        List<Trade> merged = new ArrayList<>(hot);
+        for (Trade trade : archived) {
+            if (!hotIds.contains(trade.getId())) {
+                merged.add(trade);
+            }
+        }
+        merged.sort(Comparator.comparing(Trade::getCreatedAt).reversed());
+        return merged;
+    }
+    
+    /**
+     * Trades created or updated after the given change token, newest first.
+     * Falls back to the latest {@code limit} trades when the change log no longer covers that token.
+     */
+    public DeltaResponse<Trade> getTradeChanges(String since, int limit) {
+        String version = changeLogService.toToken(changeLogService.getVersion(ChangeLogService.EntityType.TRADE));
+        Set<String> changedIds = changeLogService.getChangedKeys(
+                ChangeLogService.EntityType.TRADE, changeLogService.fromToken(since));
+        if (changedIds == null) {
+            return new DeltaResponse<>(version, true, getRecentTrades(limit), Collections.emptyList());
+        }
+        
+        List<Long> ids = new ArrayList<>(changedIds.size());
+        for (String id : changedIds) {
+            ids.add(Long.valueOf(id));
+        }
+        List<Trade> changed = tradeRepository.findAllById(ids);
+        // Trades archived since they changed are no longer in the hot table
+        if (changed.size() < ids.size()) {
+            Set<Long> found = new HashSet<>();
+            for (Trade trade : changed) {
+                found.add(trade.getId());
             }
+            for (Long id : ids) {
+                if (!found.contains(id)) {
+                    tradeArchiveService.findById(id).ifPresent(changed::add);
+                }
+            }
+        }
+        changed.sort(Comparator.comparing(Trade::getCreatedAt).reversed());
+        return new DeltaResponse<>(version, false, changed, Collections.emptyList());
+    }
+    
+    /**
+     * Cancels a pending trade with one conditional update; loading it first and saving it back
+     * would read the row twice, since the loaded trade is detached by the time it is saved.
+     */
+    public Trade cancelTrade(Long tradeId) {
+        if (tradeRepository.updateStatus(tradeId, Trade.TradeStatus.PENDING, Trade.TradeStatus.CANCELLED) == 0) {
+            return null;
         }
-        return null;
+        changeLogService.record(ChangeLogService.EntityType.TRADE, tradeId.toString());
+        return tradeRepository.findById(tradeId).orElse(null);
     }
 }
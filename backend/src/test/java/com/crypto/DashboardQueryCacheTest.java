@@ -0,0 +1,124 @@
+package com.crypto;
+
+import com.crypto.model.Cryptocurrency;
+import com.crypto.model.Portfolio;
+import com.crypto.sql.SqlStatementCounts;
+import com.crypto.sql.SqlStatementRecorder;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.context.annotation.Bean;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.junit4.SpringRunner;
+
+import javax.persistence.EntityManagerFactory;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Repeated dashboard reads must be served from the query cache: a read that writes any row
+ * invalidates the cached queries of that table, and every later read goes back to the database.
+ * Once warm, a read may only query the trades table, which is not cached.
+ */
+@RunWith(SpringRunner.class)
+@ActiveProfiles("dev")
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        properties = "trading.prices.persist-interval-ms=3600000")
+public class DashboardQueryCacheTest {
+
+    @TestConfiguration
+    static class RecorderConfig {
+        @Bean
+        static SqlStatementRecorder sqlStatementRecorder() {
+            return new SqlStatementRecorder();
+        }
+    }
+
+    @Autowired
+    private TestRestTemplate restTemplate;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private SqlStatementRecorder recorder;
+
+    private Statistics statistics;
+
+    @Before
+    public void setUp() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        // Warm the caches; the first read after startup may miss
+        getOverview();
+    }
+
+    @Test
+    public void repeatedOverviewReadsHitTheQueryCacheAndWriteNothing() {
+        long hitsBefore = statistics.getQueryCacheHitCount();
+        long updatesBefore = statistics.getEntityUpdateCount();
+        long insertsBefore = statistics.getEntityInsertCount();
+
+        long prepared = statistics.getPrepareStatementCount();
+        getOverview();
+        long firstRead = statistics.getPrepareStatementCount() - prepared;
+
+        prepared = statistics.getPrepareStatementCount();
+        getOverview();
+        long secondRead = statistics.getPrepareStatementCount() - prepared;
+
+        assertTrue("overview reads should hit the query cache",
+                statistics.getQueryCacheHitCount() >= hitsBefore + 2);
+        assertEquals("overview reads must not update rows", updatesBefore, statistics.getEntityUpdateCount());
+        assertEquals("overview reads must not insert rows", insertsBefore, statistics.getEntityInsertCount());
+        assertEquals("statements per overview read should stay flat", firstRead, secondRead);
+    }
+
+    @Test
+    public void warmOverviewReadLeavesCachedTablesAlone() {
+        long queriesBefore = cachedEntityQueryExecutions();
+        long portfolioLoads = entityLoads(Portfolio.class);
+        long cryptocurrencyLoads = entityLoads(Cryptocurrency.class);
+
+        SqlStatementCounts counts = recorder.start();
+        getOverview();
+
+        String message = "warm overview read ran " + counts;
+        assertEquals(message, 0, counts.getSelects("portfolio"));
+        assertEquals(message, 0, counts.getSelects("cryptocurrencies"));
+        assertEquals(message, 0, counts.getWrites());
+        // Query cache hits and second-level cache hits are not counted as executions or loads
+        assertEquals("cached queries must not execute", queriesBefore, cachedEntityQueryExecutions());
+        assertEquals("holdings must come from the entity cache", portfolioLoads, entityLoads(Portfolio.class));
+        assertEquals("quotes must not be loaded", cryptocurrencyLoads, entityLoads(Cryptocurrency.class));
+    }
+
+    // Database executions of every query that selects portfolio or cryptocurrency entities
+    private long cachedEntityQueryExecutions() {
+        long executions = 0;
+        for (String query : statistics.getQueries()) {
+            if (query.contains(Portfolio.class.getSimpleName()) || query.contains(Cryptocurrency.class.getSimpleName())) {
+                executions += statistics.getQueryStatistics(query).getExecutionCount();
+            }
+        }
+        return executions;
+    }
+
+    private long entityLoads(Class<?> entity) {
+        return statistics.getEntityStatistics(entity.getName()).getLoadCount();
+    }
+
+    private void getOverview() {
+        ResponseEntity<Map> response = restTemplate.getForEntity("/api/dashboard/overview", Map.class);
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+    }
+}
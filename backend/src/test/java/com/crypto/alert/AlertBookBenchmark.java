@@ -0,0 +1,122 @@
+package com.crypto.alert;
+
+import java.util.Random;
+
+/**
+ * Ticks per second through one {@link SymbolAlertBook} against the number of alerts it holds.
+ * Each book gets re-arming ABOVE and BELOW alerts spread evenly over ±20% of the base price, so the
+ * alert count stays fixed while the price walks (±0.05% per tick) and crosses some of them.
+ * Alongside the indexed book it times a plain scan of every alert per tick, the approach the
+ * index replaces. Run it from the test classes:
+ * <pre>
+ * mvn -q test-compile
+ * java -cp target/classes:target/test-classes com.crypto.alert.AlertBookBenchmark [seconds] [alertCounts...]
+ * </pre>
+ * Defaults are 2 seconds per measurement and 1,000 to 1,000,000 alerts.
+ */
+public class AlertBookBenchmark {
+
+    private static final double BASE_PRICE = 43250.0;
+    private static final double SPREAD = 0.2;
+    private static final double STEP = 0.0005;
+
+    public static void main(String[] args) {
+        double seconds = args.length > 0 ? Double.parseDouble(args[0]) : 2;
+        int[] alertCounts = {1_000, 10_000, 100_000, 1_000_000};
+        if (args.length > 1) {
+            alertCounts = new int[args.length - 1];
+            for (int i = 1; i < args.length; i++) {
+                alertCounts[i - 1] = Integer.parseInt(args[i]);
+            }
+        }
+
+        System.out.printf("%10s %16s %14s %16s%n", "alerts", "indexed ticks/s", "fired/tick", "scanned ticks/s");
+        for (int alertCount : alertCounts) {
+            double[] thresholds = thresholds(alertCount);
+            Result indexed = measureIndexed(thresholds, seconds);
+            Result scanned = measureScan(thresholds, seconds);
+            System.out.printf("%,10d %,16.0f %,14.1f %,16.0f%n",
+                    alertCount, indexed.ticksPerSecond, indexed.firedPerTick, scanned.ticksPerSecond);
+        }
+    }
+
+    private static double[] thresholds(int alertCount) {
+        double[] thresholds = new double[alertCount];
+        for (int i = 0; i < alertCount; i++) {
+            thresholds[i] = BASE_PRICE * (1 - SPREAD + 2 * SPREAD * i / alertCount);
+        }
+        return thresholds;
+    }
+
+    private static Result measureIndexed(double[] thresholds, double seconds) {
+        SymbolAlertBook book = new SymbolAlertBook();
+        for (int i = 0; i < thresholds.length; i++) {
+            PriceAlert.Condition condition = thresholds[i] >= BASE_PRICE ? PriceAlert.Condition.ABOVE : PriceAlert.Condition.BELOW;
+            book.add(new PriceAlert(i, "bitcoin", condition, thresholds[i], null, true));
+        }
+        long[] fired = new long[1];
+        SymbolAlertBook.Listener listener = (alertId, price) -> fired[0]++;
+        PriceWalk walk = new PriceWalk();
+
+        // Warm-up at the same size so the timed run measures compiled code
+        runFor(seconds / 2, () -> book.onTick(walk.next(), System.currentTimeMillis(), listener));
+        fired[0] = 0;
+        long ticks = runFor(seconds, () -> book.onTick(walk.next(), System.currentTimeMillis(), listener));
+        return new Result(ticks / seconds, (double) fired[0] / ticks);
+    }
+
+    private static Result measureScan(double[] thresholds, double seconds) {
+        long[] fired = new long[1];
+        double[] last = {BASE_PRICE};
+        PriceWalk walk = new PriceWalk();
+        Runnable tick = () -> {
+            double price = walk.next();
+            for (double threshold : thresholds) {
+                if ((last[0] < threshold && price >= threshold) || (last[0] > threshold && price <= threshold)) {
+                    fired[0]++;
+                }
+            }
+            last[0] = price;
+        };
+
+        runFor(seconds / 2, tick);
+        fired[0] = 0;
+        long ticks = runFor(seconds, tick);
+        return new Result(ticks / seconds, (double) fired[0] / ticks);
+    }
+
+    private static long runFor(double seconds, Runnable tick) {
+        long deadline = System.nanoTime() + (long) (seconds * 1e9);
+        long ticks = 0;
+        do {
+            // Check the clock every 64 ticks so timing stays out of the measurement
+            for (int i = 0; i < 64; i++) {
+                tick.run();
+            }
+            ticks += 64;
+        } while (System.nanoTime() < deadline);
+        return ticks;
+    }
+
+    // Random walk that stays inside the alert band
+    private static final class PriceWalk {
+        private final Random random = new Random(42);
+        private double price = BASE_PRICE;
+
+        double next() {
+            price *= 1 + (random.nextDouble() - 0.5) * 2 * STEP;
+            price = Math.max(BASE_PRICE * (1 - SPREAD), Math.min(BASE_PRICE * (1 + SPREAD), price));
+            return price;
+        }
+    }
+
+    private static final class Result {
+        final double ticksPerSecond;
+        final double firedPerTick;
+
+        Result(double ticksPerSecond, double firedPerTick) {
+            this.ticksPerSecond = ticksPerSecond;
+            this.firedPerTick = firedPerTick;
+        }
+    }
+}
@@ -0,0 +1,101 @@
+package com.crypto.archive;
+
+import com.crypto.model.Trade;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+
+import static com.crypto.archive.TradeSegmentTest.trade;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class TradeColdStoreTest {
+
+    private static final LocalDateTime T0 = LocalDateTime.of(2024, 1, 15, 10, 30);
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void findsLatestAcrossSegments() throws IOException {
+        TradeColdStore store = new TradeColdStore(folder.getRoot().toPath(), false);
+        // Appended out of creation order, so id order and time order differ
+        store.append(trades(6, 10, T0.plusHours(1)));
+        store.append(trades(100, 102, T0.plusHours(2)));
+        store.append(trades(1, 5, T0));
+
+        assertEquals(3, store.getSegmentCount());
+        assertEquals(13, store.getRowCount());
+        assertEquals(102, store.getMaxId());
+        assertEquals(T0.plusHours(2).plusMinutes(2), store.getNewestCreatedAt());
+
+        List<Trade> latest = store.findLatest(5);
+        assertEquals(Arrays.asList(102L, 101L, 100L, 10L, 9L), ids(latest));
+        assertEquals(13, store.findLatest(50).size());
+        assertTrue(store.findLatest(0).isEmpty());
+    }
+
+    @Test
+    public void findsIdsOnlyInsideTheRange() throws IOException {
+        TradeColdStore store = new TradeColdStore(folder.getRoot().toPath(), false);
+        store.append(trades(1, 5, T0));
+        store.append(trades(8, 12, T0.plusHours(1)));
+
+        assertEquals(new HashSet<>(Arrays.asList(4L, 5L, 8L, 9L)), store.findIds(4, 9));
+        assertEquals(new HashSet<>(Arrays.asList(3L)), store.findIds(3, 3));
+        assertTrue(store.findIds(6, 7).isEmpty());
+        assertTrue(store.findIds(13, 20).isEmpty());
+
+        assertEquals(Long.valueOf(10), store.findById(10).get().getId());
+        assertFalse(store.findById(7).isPresent());
+        assertEquals(10, store.findBySymbol("bitcoin").size() + store.findBySymbol("ethereum").size());
+        assertEquals(10, store.findAll().size());
+    }
+
+    @Test
+    public void reopensOrResetsExistingSegments() throws IOException {
+        Path directory = folder.getRoot().toPath();
+        TradeColdStore store = new TradeColdStore(directory, false);
+        store.append(trades(1, 5, T0));
+        store.append(trades(6, 10, T0.plusHours(1)));
+
+        TradeColdStore reopened = new TradeColdStore(directory, false);
+        assertEquals(2, reopened.getSegmentCount());
+        assertEquals(store.getSizeBytes(), reopened.getSizeBytes());
+        assertEquals(ids(store.findAll()), ids(reopened.findAll()));
+
+        TradeColdStore reset = new TradeColdStore(directory, true);
+        assertEquals(0, reset.getSegmentCount());
+        assertNull(reset.getNewestCreatedAt());
+        assertEquals(0, new TradeColdStore(directory, false).getSegmentCount());
+    }
+
+    // One trade per id, a minute apart, alternating symbols
+    private static List<Trade> trades(long firstId, long lastId, LocalDateTime firstCreatedAt) {
+        List<Trade> trades = new ArrayList<>();
+        for (long id = firstId; id <= lastId; id++) {
+            String symbol = id % 2 == 0 ? "bitcoin" : "ethereum";
+            trades.add(trade(id, symbol, Trade.TradeType.BUY, "1", String.valueOf(100 + id),
+                    firstCreatedAt.plusMinutes(id - firstId)));
+        }
+        return trades;
+    }
+
+    private static List<Long> ids(List<Trade> trades) {
+        List<Long> ids = new ArrayList<>();
+        for (Trade trade : trades) {
+            ids.add(trade.getId());
+        }
+        return ids;
+    }
+}
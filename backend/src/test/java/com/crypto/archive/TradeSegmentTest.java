@@ -0,0 +1,218 @@
+package com.crypto.archive;
+
+import com.crypto.model.Trade;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class TradeSegmentTest {
+
+    private static final LocalDateTime T0 = LocalDateTime.of(2024, 1, 15, 10, 30, 0, 123456789);
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void roundTripsEveryColumn() throws IOException {
+        Trade first = trade(1000, "bitcoin", Trade.TradeType.BUY, "0.5", "43250.12", T0);
+        first.setExecutedAt(T0.plusNanos(1500));
+        first.setIdempotencyKey("order-1");
+        // Ids and amounts going down make negative deltas
+        Trade second = trade(1003, "ethereum", Trade.TradeType.SELL, "0.25", "2650", T0.minusSeconds(5));
+        second.setStatus(Trade.TradeStatus.FAILED);
+        Trade third = trade(1001, "bitcoin", Trade.TradeType.SELL, "12", "43100", T0.plusDays(1));
+
+        TradeSegment segment = writeAndOpen(Arrays.asList(first, second, third));
+
+        assertEquals(3, segment.getRowCount());
+        assertEquals(1000, segment.getMinId());
+        assertEquals(1003, segment.getMaxId());
+        assertEquals(T0.minusSeconds(5), segment.getMinCreatedAt());
+        assertEquals(T0.plusDays(1), segment.getMaxCreatedAt());
+        assertArrayEquals(new long[] {1000, 1001, 1003}, segment.readIds());
+
+        List<Trade> trades = segment.readAll();
+        assertTrade(first, trades.get(0));
+        assertTrade(third, trades.get(1));
+        assertTrade(second, trades.get(2));
+    }
+
+    @Test
+    public void keepsExecutionBeforeCreation() throws IOException {
+        // Clock adjustments can record executedAt before createdAt
+        Trade trade = trade(1, "bitcoin", Trade.TradeType.BUY, "1", "100", T0);
+        trade.setExecutedAt(T0.minusNanos(987654321));
+
+        Trade read = writeAndOpen(Arrays.asList(trade)).readAll().get(0);
+
+        assertEquals(T0.minusNanos(987654321), read.getExecutedAt());
+        assertEquals(T0, read.getCreatedAt());
+    }
+
+    @Test
+    public void keepsMissingOptionalColumnsAndRoundsToEightDecimals() throws IOException {
+        Trade trade = trade(7, "cardano", Trade.TradeType.BUY, "0.123456789", "0.45", T0);
+        trade.setTotalValue(new BigDecimal("0.055555555"));
+
+        Trade read = writeAndOpen(Arrays.asList(trade)).readAll().get(0);
+
+        assertNull(read.getExecutedAt());
+        assertNull(read.getIdempotencyKey());
+        assertEquals(new BigDecimal("0.12345679"), read.getAmount());
+        assertEquals(new BigDecimal("0.45000000"), read.getPrice());
+        assertEquals(new BigDecimal("0.05555556"), read.getTotalValue());
+    }
+
+    @Test
+    public void readsSelectedRowsBySymbolAndId() throws IOException {
+        TradeSegment segment = writeAndOpen(Arrays.asList(
+                trade(10, "bitcoin", Trade.TradeType.BUY, "1", "100", T0),
+                trade(11, "ethereum", Trade.TradeType.BUY, "2", "200", T0.plusSeconds(1)),
+                trade(12, "bitcoin", Trade.TradeType.SELL, "3", "300", T0.plusSeconds(2))));
+
+        assertArrayEquals(new int[] {0, 2}, segment.findRows("bitcoin"));
+        assertEquals(0, segment.findRows("solana").length);
+        assertEquals(1, segment.findRow(11));
+        assertEquals(-1, segment.findRow(13));
+        assertEquals(-1, segment.findRow(9));
+
+        List<Trade> read = segment.read(segment.findRows("bitcoin"));
+        assertEquals(2, read.size());
+        assertEquals(Long.valueOf(12), read.get(1).getId());
+        assertEquals(new BigDecimal("3.00000000"), read.get(1).getAmount());
+    }
+
+    @Test
+    public void rejectsTradesMissingRequiredColumns() {
+        assertTrue(TradeSegment.canEncode(trade(1, "bitcoin", Trade.TradeType.BUY, "1", "100", T0)));
+
+        Trade noTotal = trade(1, "bitcoin", Trade.TradeType.BUY, "1", "100", T0);
+        noTotal.setTotalValue(null);
+        assertFalse(TradeSegment.canEncode(noTotal));
+
+        Trade noCreatedAt = trade(1, "bitcoin", Trade.TradeType.BUY, "1", "100", T0);
+        noCreatedAt.setCreatedAt(null);
+        assertFalse(TradeSegment.canEncode(noCreatedAt));
+
+        Trade noId = trade(1, "bitcoin", Trade.TradeType.BUY, "1", "100", T0);
+        noId.setId(null);
+        assertFalse(TradeSegment.canEncode(noId));
+
+        Trade noStatus = trade(1, "bitcoin", Trade.TradeType.BUY, "1", "100", T0);
+        noStatus.setStatus(null);
+        assertFalse(TradeSegment.canEncode(noStatus));
+    }
+
+    @Test
+    public void rejectsDecimalsOutsideTheFixedScale() {
+        // 10^11 scaled by 10^8 does not fit in a long
+        assertFalse(TradeSegment.canEncode(trade(1, "bitcoin", Trade.TradeType.BUY, "1", "100000000000", T0)));
+    }
+
+    @Test
+    public void rejectsTruncatedSegment() throws IOException {
+        Path file = write(Arrays.asList(
+                trade(1, "bitcoin", Trade.TradeType.BUY, "1", "100", T0),
+                trade(2, "bitcoin", Trade.TradeType.BUY, "1", "101", T0.plusSeconds(1))));
+        try (RandomAccessFile out = new RandomAccessFile(file.toFile(), "rw")) {
+            out.setLength(out.length() - 3);
+        }
+
+        assertOpenFails(file);
+    }
+
+    @Test
+    public void rejectsCorruptHeader() throws IOException {
+        Path file = write(Arrays.asList(trade(1, "bitcoin", Trade.TradeType.BUY, "1", "100", T0)));
+        try (RandomAccessFile out = new RandomAccessFile(file.toFile(), "rw")) {
+            out.writeInt(Integer.MAX_VALUE);
+        }
+        assertOpenFails(file);
+
+        Files.write(file, new byte[] {0, 0, 0, 8, 1, 2, 3, 4, 5, 6, 7, 8});
+        assertOpenFails(file);
+    }
+
+    @Test
+    public void reportsCorruptColumnAsIoException() throws IOException {
+        Path file = write(Arrays.asList(
+                trade(1, "bitcoin", Trade.TradeType.BUY, "1", "100", T0),
+                trade(2, "ethereum", Trade.TradeType.SELL, "2", "200", T0.plusSeconds(1))));
+        byte[] bytes = Files.readAllBytes(file);
+        // The id column is the first block after the header; break its zlib header byte
+        int headerLength = ByteBuffer.wrap(bytes).getInt();
+        bytes[4 + headerLength] = (byte) 0xFF;
+        Files.write(file, bytes);
+
+        // The header is intact, so the segment opens and the damage shows up on the first read
+        TradeSegment segment = TradeSegment.open(file);
+        assertEquals(2, segment.getRowCount());
+        try {
+            segment.readIds();
+            fail("Expected the corrupt column to be reported");
+        } catch (IOException expected) {
+            assertTrue(expected.getMessage(), expected.getMessage().contains("ID"));
+        }
+    }
+
+    static Trade trade(long id, String symbol, Trade.TradeType type, String amount, String price,
+                       LocalDateTime createdAt) {
+        Trade trade = new Trade(symbol, type, new BigDecimal(amount), new BigDecimal(price));
+        trade.setId(id);
+        trade.setStatus(Trade.TradeStatus.COMPLETED);
+        trade.setCreatedAt(createdAt);
+        return trade;
+    }
+
+    private TradeSegment writeAndOpen(List<Trade> trades) throws IOException {
+        return TradeSegment.open(write(trades));
+    }
+
+    private Path write(List<Trade> trades) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        TradeSegment.write(trades, out);
+        Path file = folder.newFile().toPath();
+        Files.write(file, out.toByteArray());
+        return file;
+    }
+
+    private static void assertOpenFails(Path file) {
+        try {
+            TradeSegment.open(file);
+            fail("Expected " + file + " to be rejected");
+        } catch (IOException expected) {
+            // Rejected before any column is read
+        }
+    }
+
+    private static void assertTrade(Trade expected, Trade actual) {
+        assertEquals(expected.getId(), actual.getId());
+        assertEquals(expected.getSymbol(), actual.getSymbol());
+        assertEquals(expected.getType(), actual.getType());
+        assertEquals(expected.getStatus(), actual.getStatus());
+        assertEquals(0, expected.getAmount().compareTo(actual.getAmount()));
+        assertEquals(0, expected.getPrice().compareTo(actual.getPrice()));
+        assertEquals(0, expected.getTotalValue().compareTo(actual.getTotalValue()));
+        assertEquals(expected.getCreatedAt(), actual.getCreatedAt());
+        assertEquals(expected.getExecutedAt(), actual.getExecutedAt());
+        assertEquals(expected.getIdempotencyKey(), actual.getIdempotencyKey());
+    }
+}
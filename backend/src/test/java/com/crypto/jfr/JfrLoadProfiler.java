@@ -0,0 +1,325 @@
+package com.crypto.jfr;
+
+import com.crypto.CryptoTradingApplication;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jdk.jfr.Configuration;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordedStackTrace;
+import jdk.jfr.consumer.RecordingFile;
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.PriorityQueue;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Load-run profiler for the trade and pricing lifecycle. Starts the application in this JVM,
+ * warms it up, then records a JFR file while worker threads drive a mix of price, portfolio,
+ * dashboard and trade requests over HTTP, and finally prints from the recording:
+ * <ul>
+ *   <li>allocation by site: the allocating frame and class, and the first application frame;</li>
+ *   <li>count, p50, p99 and max duration per trading event type;</li>
+ *   <li>the slowest individual trading events with their symbol, status and thread.</li>
+ * </ul>
+ * It lives in the test sources and is not part of the application jar. Run it from the compiled
+ * main and test classes plus the dependency classpath:
+ * <pre>
+ * mvn -q test-compile dependency:build-classpath -Dmdep.outputFile=target/classpath.txt
+ * java -cp "target/classes:target/test-classes:$(cat target/classpath.txt)" com.crypto.jfr.JfrLoadProfiler [seconds] [threads] [output.jfr]
+ * </pre>
+ * Defaults are 60 seconds, 16 threads and {@code target/trading-load.jfr}; the file can be opened
+ * in JDK Mission Control afterwards. Needs a JDK with Flight Recorder (8u262+ or 11+).
+ * Admission limits are raised for the run so the profile shows the trade path, not 429s.
+ * <p>
+ * The same events can be captured in production without this harness, e.g.
+ * {@code -XX:StartFlightRecording=settings=profile,maxage=1h,filename=trading.jfr}; custom events
+ * are enabled with no threshold unless the settings say otherwise.
+ */
+public final class JfrLoadProfiler {
+
+    private static final List<String> TRADING_EVENTS = Arrays.asList(
+            "com.crypto.TradeSubmission", "com.crypto.TradeExecution", "com.crypto.PortfolioUpdate",
+            "com.crypto.PriceTick", "com.crypto.DashboardComposition");
+
+    private static final List<String> ALLOCATION_EVENTS = Arrays.asList(
+            "jdk.ObjectAllocationSample", "jdk.ObjectAllocationInNewTLAB", "jdk.ObjectAllocationOutsideTLAB");
+
+    private static final String[] SYMBOLS = {"bitcoin", "ethereum", "cardano", "solana"};
+
+    private static final int TOP = 15;
+
+    private static final Comparator<RecordedEvent> BY_DURATION = Comparator.comparing(event -> event.getDuration());
+
+    private final String baseUrl;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final Map<String, BigDecimal> lastPrices = new ConcurrentHashMap<>();
+    private final Map<Integer, AtomicLong> responses = new ConcurrentHashMap<>();
+
+    private JfrLoadProfiler(String baseUrl) {
+        this.baseUrl = baseUrl;
+    }
+
+    public static void main(String[] args) throws Exception {
+        int seconds = args.length > 0 ? Integer.parseInt(args[0]) : 60;
+        int threads = args.length > 1 ? Integer.parseInt(args[1]) : 16;
+        Path output = Paths.get(args.length > 2 ? args[2] : "target/trading-load.jfr");
+
+        ConfigurableApplicationContext context = SpringApplication.run(CryptoTradingApplication.class,
+                "--server.port=0",
+                "--spring.profiles.active=dev",
+                "--spring.jpa.show-sql=false",
+                "--logging.level.com.crypto=WARN",
+                "--logging.level.org.springframework.web=WARN",
+                "--trading.admission.global.permits-per-second=1000000",
+                "--trading.admission.global.burst=1000000",
+                "--trading.admission.client.permits-per-second=1000000",
+                "--trading.admission.client.burst=1000000",
+                "--trading.admission.concurrency.max-limit=10000");
+        try {
+            JfrLoadProfiler profiler = new JfrLoadProfiler(
+                    "http://localhost:" + context.getEnvironment().getProperty("local.server.port"));
+
+            // JIT compilation and first-use allocations would otherwise dominate the profile
+            profiler.drive(threads, Math.max(5, seconds / 4));
+            profiler.responses.clear();
+
+            try (Recording recording = new Recording(Configuration.getConfiguration("profile"))) {
+                for (String event : TRADING_EVENTS) {
+                    recording.enable(event).withThreshold(Duration.ZERO);
+                }
+                recording.setName("trading-load");
+                recording.start();
+                profiler.drive(threads, seconds);
+                recording.stop();
+                recording.dump(output);
+            }
+            System.out.println("Recorded " + seconds + " s from " + threads + " threads to " + output
+                    + "; HTTP responses by status " + new TreeMap<>(profiler.responses));
+        } finally {
+            context.close();
+        }
+
+        summarize(output);
+    }
+
+    private void drive(int threads, int seconds) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(seconds);
+        ExecutorService workers = Executors.newFixedThreadPool(threads);
+        for (int i = 0; i < threads; i++) {
+            workers.execute(() -> {
+                while (System.nanoTime() < deadline) {
+                    try {
+                        request();
+                    } catch (IOException e) {
+                        responses.computeIfAbsent(-1, status -> new AtomicLong()).incrementAndGet();
+                    }
+                }
+            });
+        }
+        workers.shutdown();
+        workers.awaitTermination(seconds + 60L, TimeUnit.SECONDS);
+    }
+
+    // Request mix roughly like a busy dashboard client that also trades
+    private void request() throws IOException {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        String symbol = SYMBOLS[random.nextInt(SYMBOLS.length)];
+        int action = random.nextInt(100);
+        if (action < 30) {
+            call("GET", "/api/v3/simple/price?ids=bitcoin,ethereum,cardano,solana&vs_currencies=usd", null);
+        } else if (action < 45) {
+            String body = call("GET", "/api/v3/price/" + symbol, null);
+            if (body != null) {
+                JsonNode usd = objectMapper.readTree(body).get("usd");
+                if (usd != null) {
+                    lastPrices.put(symbol, usd.decimalValue());
+                }
+            }
+        } else if (action < 60) {
+            call("GET", "/api/portfolio", null);
+        } else if (action < 75) {
+            call("GET", "/api/dashboard/overview", null);
+        } else if (action < 85) {
+            call("GET", "/api/trades/recent?limit=10", null);
+        } else {
+            BigDecimal price = lastPrices.get(symbol);
+            if (price == null) {
+                return;
+            }
+            String trade = "{\"symbol\": \"" + symbol + "\", \"type\": \"BUY\", \"amount\": 0.001, \"price\": "
+                    + price.toPlainString() + "}";
+            call("POST", "/api/trades", trade);
+        }
+    }
+
+    // Returns the body of a 2xx response, otherwise null
+    private String call(String method, String path, String body) throws IOException {
+        HttpURLConnection connection = (HttpURLConnection) new URL(baseUrl + path).openConnection();
+        connection.setRequestMethod(method);
+        if (body != null) {
+            connection.setDoOutput(true);
+            connection.setRequestProperty("Content-Type", "application/json");
+            try (OutputStream out = connection.getOutputStream()) {
+                out.write(body.getBytes(StandardCharsets.UTF_8));
+            }
+        }
+        int status = connection.getResponseCode();
+        responses.computeIfAbsent(status, s -> new AtomicLong()).incrementAndGet();
+        InputStream in = status < 400 ? connection.getInputStream() : connection.getErrorStream();
+        if (in == null) {
+            return null;
+        }
+        // Drain fully so the keep-alive connection is reused
+        ByteArrayOutputStream response = new ByteArrayOutputStream();
+        try (InputStream stream = in) {
+            byte[] buffer = new byte[8192];
+            for (int read; (read = stream.read(buffer)) != -1; ) {
+                response.write(buffer, 0, read);
+            }
+        }
+        return status / 100 == 2 ? new String(response.toByteArray(), StandardCharsets.UTF_8) : null;
+    }
+
+    /**
+     * Prints allocation by site, per-event duration percentiles and the slowest trading events.
+     */
+    public static void summarize(Path recordingFile) throws IOException {
+        Map<String, long[]> allocationBySite = new HashMap<>();
+        Map<String, long[]> allocationByApplicationFrame = new HashMap<>();
+        Map<String, List<Long>> durationsByEvent = new TreeMap<>();
+        PriorityQueue<RecordedEvent> slowest = new PriorityQueue<>(BY_DURATION);
+
+        try (RecordingFile file = new RecordingFile(recordingFile)) {
+            while (file.hasMoreEvents()) {
+                RecordedEvent event = file.readEvent();
+                String name = event.getEventType().getName();
+                if (TRADING_EVENTS.contains(name)) {
+                    durationsByEvent.computeIfAbsent(name, n -> new ArrayList<>()).add(event.getDuration().toNanos());
+                    slowest.add(event);
+                    if (slowest.size() > TOP) {
+                        slowest.poll();
+                    }
+                } else if (ALLOCATION_EVENTS.contains(name)) {
+                    long bytes = allocationWeight(event);
+                    String objectClass = event.getClass("objectClass").getName();
+                    add(allocationBySite, topFrame(event.getStackTrace()) + "  " + objectClass, bytes);
+                    add(allocationByApplicationFrame, applicationFrame(event.getStackTrace()), bytes);
+                }
+            }
+        }
+
+        System.out.println();
+        System.out.println("Allocation by site (estimated bytes, samples):");
+        printTop(allocationBySite);
+        System.out.println();
+        System.out.println("Allocation by first application frame:");
+        printTop(allocationByApplicationFrame);
+
+        System.out.println();
+        System.out.println("Trading event durations (ms):");
+        System.out.printf("  %-32s %8s %9s %9s %9s%n", "event", "count", "p50", "p99", "max");
+        for (Map.Entry<String, List<Long>> entry : durationsByEvent.entrySet()) {
+            List<Long> durations = entry.getValue();
+            Collections.sort(durations);
+            System.out.printf("  %-32s %8d %9.3f %9.3f %9.3f%n", entry.getKey(), durations.size(),
+                    percentile(durations, 0.50), percentile(durations, 0.99), durations.get(durations.size() - 1) / 1e6);
+        }
+
+        System.out.println();
+        System.out.println("Slowest trading events:");
+        List<RecordedEvent> events = new ArrayList<>(slowest);
+        events.sort(BY_DURATION.reversed());
+        for (RecordedEvent event : events) {
+            System.out.printf("  %9.3f ms  %-30s symbol=%-9s status=%-10s thread=%s at %s%n",
+                    event.getDuration().toNanos() / 1e6, event.getEventType().getName(),
+                    Objects.toString(event.getString("symbol"), "-"), event.getString("status"),
+                    event.getThread() != null ? event.getThread().getJavaName() : "-", event.getStartTime());
+        }
+    }
+
+    // Sampled events carry a weight; TLAB events stand for the whole TLAB they triggered
+    private static long allocationWeight(RecordedEvent event) {
+        if (event.hasField("weight")) {
+            return event.getLong("weight");
+        }
+        if (event.hasField("tlabSize")) {
+            return event.getLong("tlabSize");
+        }
+        return event.getLong("allocationSize");
+    }
+
+    private static String topFrame(RecordedStackTrace stackTrace) {
+        if (stackTrace == null || stackTrace.getFrames().isEmpty()) {
+            return "<no stack trace>";
+        }
+        return describe(stackTrace.getFrames().get(0));
+    }
+
+    private static String applicationFrame(RecordedStackTrace stackTrace) {
+        if (stackTrace != null) {
+            for (RecordedFrame frame : stackTrace.getFrames()) {
+                if (frame.isJavaFrame() && frame.getMethod().getType().getName().startsWith("com.crypto.")) {
+                    return describe(frame);
+                }
+            }
+        }
+        return "<outside application code>";
+    }
+
+    private static String describe(RecordedFrame frame) {
+        return frame.getMethod().getType().getName() + "." + frame.getMethod().getName() + ":" + frame.getLineNumber();
+    }
+
+    private static void add(Map<String, long[]> totals, String key, long bytes) {
+        long[] total = totals.computeIfAbsent(key, k -> new long[2]);
+        total[0] += bytes;
+        total[1]++;
+    }
+
+    private static void printTop(Map<String, long[]> totals) {
+        long all = 0;
+        for (long[] total : totals.values()) {
+            all += total[0];
+        }
+        List<Map.Entry<String, long[]>> entries = new ArrayList<>(totals.entrySet());
+        entries.sort((a, b) -> Long.compare(b.getValue()[0], a.getValue()[0]));
+        for (Map.Entry<String, long[]> entry : entries.subList(0, Math.min(TOP, entries.size()))) {
+            long[] total = entry.getValue();
+            System.out.printf("  %10.1f MB %5.1f%% %7d  %s%n", total[0] / 1048576.0,
+                    all == 0 ? 0 : 100.0 * total[0] / all, total[1], entry.getKey());
+        }
+    }
+
+    private static double percentile(List<Long> sorted, double quantile) {
+        int index = (int) Math.ceil(quantile * sorted.size()) - 1;
+        return sorted.get(Math.max(0, index)) / 1e6;
+    }
+}
@@ -0,0 +1,83 @@
+package com.crypto.ratelimit;
+
+import org.junit.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class AdaptiveConcurrencyLimiterTest {
+
+    private static final long FAST = TimeUnit.MILLISECONDS.toNanos(1);
+    private static final long SLOW = TimeUnit.MILLISECONDS.toNanos(10);
+
+    @Test
+    public void admitsUpToTheLimit() {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(3, 1, 10);
+
+        assertTrue(limiter.tryAcquire());
+        assertTrue(limiter.tryAcquire());
+        assertTrue(limiter.tryAcquire());
+        assertFalse(limiter.tryAcquire());
+        assertEquals(3, limiter.getInFlight());
+
+        limiter.release(FAST);
+        assertEquals(2, limiter.getInFlight());
+        assertTrue(limiter.tryAcquire());
+    }
+
+    @Test
+    public void growsWhileLatencyStaysFlatUpToTheMaximum() {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(20, 10, 40);
+
+        saturate(limiter, FAST);
+        assertTrue("limit " + limiter.getLimit(), limiter.getLimit() > 20);
+
+        for (int i = 0; i < 10; i++) {
+            saturate(limiter, FAST);
+        }
+        assertEquals(40, limiter.getLimit());
+    }
+
+    @Test
+    public void shrinksWhenLatencyRisesDownToTheMinimum() {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(40, 10, 40);
+        // Establish the no-load latency first
+        saturate(limiter, FAST);
+        int before = limiter.getLimit();
+
+        saturate(limiter, SLOW);
+        assertTrue("limit " + limiter.getLimit() + " after " + before, limiter.getLimit() < before);
+
+        for (int i = 0; i < 5; i++) {
+            saturate(limiter, SLOW);
+        }
+        // Left alone the gradient would settle near 4; the minimum holds it at 10
+        assertEquals(10, limiter.getLimit());
+    }
+
+    @Test
+    public void doesNotGrowWhileMostlyIdle() {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(20, 10, 40);
+
+        for (int i = 0; i < 100; i++) {
+            assertTrue(limiter.tryAcquire());
+            limiter.release(FAST);
+        }
+
+        assertEquals(20, limiter.getLimit());
+    }
+
+    // Fills every slot, then completes them all with the same latency
+    private static void saturate(AdaptiveConcurrencyLimiter limiter, long rttNanos) {
+        int acquired = 0;
+        while (limiter.tryAcquire()) {
+            acquired++;
+        }
+        for (int i = 0; i < acquired; i++) {
+            limiter.release(rttNanos);
+        }
+    }
+}
@@ -0,0 +1,71 @@
+package com.crypto.ratelimit;
+
+import org.junit.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class TokenBucketTest {
+
+    private static final long SECOND = TimeUnit.SECONDS.toNanos(1);
+
+    @Test
+    public void allowsTheBurstThenAsksToWaitOneInterval() {
+        // One permit a second, so the test runs far inside a single emission interval
+        TokenBucket bucket = new TokenBucket(1, 3);
+
+        assertEquals(0, bucket.tryAcquire());
+        assertEquals(0, bucket.tryAcquire());
+        assertEquals(0, bucket.tryAcquire());
+
+        long wait = bucket.tryAcquire();
+        assertTrue("wait " + wait, wait > 0 && wait <= SECOND);
+        // A rejected attempt takes nothing, so the next one waits no longer
+        assertTrue(bucket.tryAcquire() <= wait);
+    }
+
+    @Test
+    public void refundReturnsAPermit() {
+        TokenBucket bucket = new TokenBucket(1, 2);
+        bucket.tryAcquire();
+        bucket.tryAcquire();
+        assertTrue(bucket.tryAcquire() > 0);
+
+        bucket.refund();
+
+        assertEquals(0, bucket.tryAcquire());
+        assertTrue(bucket.tryAcquire() > 0);
+    }
+
+    @Test
+    public void isFullOnlyOnceEveryPermitHasRefilled() throws InterruptedException {
+        TokenBucket slow = new TokenBucket(1, 5);
+        assertTrue(slow.isFull());
+        slow.tryAcquire();
+        assertFalse(slow.isFull());
+        slow.refund();
+        assertTrue(slow.isFull());
+
+        // 1000 a second refills one permit in a millisecond
+        TokenBucket fast = new TokenBucket(1000, 2);
+        fast.tryAcquire();
+        fast.tryAcquire();
+        assertFalse(fast.isFull());
+        Thread.sleep(20);
+        assertTrue(fast.isFull());
+        assertEquals(0, fast.tryAcquire());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void rejectsNonPositiveRate() {
+        new TokenBucket(0, 1);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void rejectsEmptyBurst() {
+        new TokenBucket(1, 0);
+    }
+}
@@ -0,0 +1,75 @@
+package com.crypto.ratelimit;
+
+import org.junit.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.security.Principal;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class TradeAdmissionInterceptorTest {
+
+    @Test
+    public void sharesOneBucketPerRemoteAddressWithoutATrustedHeader() throws Exception {
+        TradeAdmissionInterceptor interceptor = interceptor(null);
+
+        assertTrue(admit(interceptor, request("10.0.0.1", "203.0.113.7")));
+        // The forwarded header is ignored, so this is the same client
+        assertFalse(admit(interceptor, request("10.0.0.1", "203.0.113.8")));
+        assertTrue(admit(interceptor, request("10.0.0.2", null)));
+    }
+
+    @Test
+    public void usesTheLastEntryOfTheTrustedHeader() throws Exception {
+        TradeAdmissionInterceptor interceptor = interceptor("X-Forwarded-For");
+
+        assertTrue(admit(interceptor, request("10.0.0.1", "203.0.113.7")));
+        assertTrue(admit(interceptor, request("10.0.0.1", "203.0.113.8")));
+        // A client-supplied first entry does not buy a new bucket
+        assertFalse(admit(interceptor, request("10.0.0.1", "198.51.100.1, 203.0.113.7")));
+        // Without the header the proxy's own address is the key
+        assertTrue(admit(interceptor, request("10.0.0.1", null)));
+    }
+
+    @Test
+    public void prefersTheAuthenticatedPrincipal() throws Exception {
+        TradeAdmissionInterceptor interceptor = interceptor("X-Forwarded-For");
+        Principal alice = () -> "alice";
+
+        MockHttpServletRequest first = request("10.0.0.1", "203.0.113.7");
+        first.setUserPrincipal(alice);
+        assertTrue(admit(interceptor, first));
+
+        MockHttpServletRequest second = request("10.0.0.2", "203.0.113.9");
+        second.setUserPrincipal(alice);
+        assertFalse(admit(interceptor, second));
+
+        assertTrue(admit(interceptor, request("10.0.0.1", "203.0.113.7")));
+        assertEquals(2, interceptor.getStatistics().get("trackedClients"));
+    }
+
+    // One trade per client before the bucket is empty; the global limits never bind here
+    private static TradeAdmissionInterceptor interceptor(String trustedHeader) {
+        return new TradeAdmissionInterceptor(new TokenBucket(1000, 1000),
+                new AdaptiveConcurrencyLimiter(100, 1, 100), 0.001, 1, 100, trustedHeader);
+    }
+
+    private static MockHttpServletRequest request(String remoteAddress, String forwardedFor) {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/api/trades");
+        request.setRemoteAddr(remoteAddress);
+        if (forwardedFor != null) {
+            request.addHeader("X-Forwarded-For", forwardedFor);
+        }
+        return request;
+    }
+
+    private static boolean admit(TradeAdmissionInterceptor interceptor, MockHttpServletRequest request) throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        boolean admitted = interceptor.preHandle(request, response, null);
+        interceptor.afterCompletion(request, response, null, null);
+        return admitted;
+    }
+}
@@ -0,0 +1,116 @@
+package com.crypto.service;
+
+import com.crypto.dto.TradeRequest;
+import com.crypto.model.Portfolio;
+import com.crypto.model.Trade;
+import com.crypto.repository.PortfolioRepository;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnitRunner;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.math.BigDecimal;
+import java.util.Collections;
+
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@RunWith(MockitoJUnitRunner.class)
+public class PreTradeRiskServiceTest {
+
+    private static final BigDecimal PRICE = new BigDecimal("100");
+
+    @Mock
+    private PortfolioRepository portfolioRepository;
+
+    @Mock
+    private CryptocurrencyService cryptocurrencyService;
+
+    @InjectMocks
+    private PreTradeRiskService riskService;
+
+    @Before
+    public void setUp() {
+        ReflectionTestUtils.setField(riskService, "maxNotional", new BigDecimal("1000"));
+        ReflectionTestUtils.setField(riskService, "priceBandPercent", new BigDecimal("10"));
+        when(portfolioRepository.findAll()).thenReturn(Collections.singletonList(
+                new Portfolio("bitcoin", new BigDecimal("1.0"), PRICE)));
+        when(cryptocurrencyService.getLatestPrice("bitcoin")).thenReturn(PRICE);
+    }
+
+    @Test
+    public void reservesSellQuantityUntilTheHoldingIsUsedUp() {
+        riskService.checkAndReserve(sell("0.6"));
+
+        assertRejected(sell("0.6"), "Insufficient bitcoin holding");
+        riskService.checkAndReserve(sell("0.4"));
+        assertRejected(sell("0.00000001"), "Insufficient bitcoin holding");
+        verify(portfolioRepository, times(1)).findAll();
+    }
+
+    @Test
+    public void failedSellHandsItsReservationBack() {
+        riskService.checkAndReserve(sell("0.6"));
+
+        riskService.onTradeFailed(trade(Trade.TradeType.SELL, "0.6"));
+
+        riskService.checkAndReserve(sell("1.0"));
+    }
+
+    @Test
+    public void completedSellKeepsItsReservation() {
+        riskService.checkAndReserve(sell("0.6"));
+
+        riskService.onTradeCompleted(trade(Trade.TradeType.SELL, "0.6"));
+
+        assertRejected(sell("0.6"), "Insufficient bitcoin holding");
+    }
+
+    @Test
+    public void completedBuyAddsToTheHolding() {
+        riskService.checkAndReserve(request(Trade.TradeType.BUY, "2", PRICE));
+        // Nothing is available from a buy until it completes
+        assertRejected(sell("1.5"), "Insufficient bitcoin holding");
+
+        riskService.onTradeCompleted(trade(Trade.TradeType.BUY, "2"));
+
+        riskService.checkAndReserve(sell("3"));
+    }
+
+    @Test
+    public void rejectsUnknownSymbolsLargeOrdersAndOffMarketPrices() {
+        assertRejected(new TradeRequest("dogecoin", Trade.TradeType.BUY, BigDecimal.ONE, PRICE), "Unknown symbol");
+        // 11 x 100 is over the 1000 notional limit
+        assertRejected(request(Trade.TradeType.BUY, "11", PRICE), "exceeds limit");
+        // 111 is 11% away from the market price of 100
+        assertRejected(request(Trade.TradeType.BUY, "1", new BigDecimal("111")), "away from market price");
+        assertRejected(sell("2"), "Insufficient bitcoin holding");
+    }
+
+    private void assertRejected(TradeRequest request, String reason) {
+        try {
+            riskService.checkAndReserve(request);
+            fail("Expected " + request.getType() + " " + request.getAmount() + " to be rejected");
+        } catch (TradeRejectedException expected) {
+            assertTrue(expected.getMessage(), expected.getMessage().contains(reason));
+        }
+    }
+
+    private static TradeRequest sell(String amount) {
+        return request(Trade.TradeType.SELL, amount, PRICE);
+    }
+
+    private static TradeRequest request(Trade.TradeType type, String amount, BigDecimal price) {
+        return new TradeRequest("bitcoin", type, new BigDecimal(amount), price);
+    }
+
+    private static Trade trade(Trade.TradeType type, String amount) {
+        return new Trade("bitcoin", type, new BigDecimal(amount), PRICE);
+    }
+}
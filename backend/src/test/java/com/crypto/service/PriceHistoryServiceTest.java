@@ -0,0 +1,81 @@
+package com.crypto.service;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+public class PriceHistoryServiceTest {
+
+    private static final double EPSILON = 1e-9;
+
+    private PriceHistoryService history;
+
+    @Before
+    public void setUp() {
+        history = new PriceHistoryService();
+        ReflectionTestUtils.setField(history, "historySize", 4);
+    }
+
+    @Test
+    public void alignsSeriesOnSharedSnapshots() {
+        record("bitcoin", 100, "ethereum", 10);
+        record("bitcoin", 101, "ethereum", 11);
+        record("bitcoin", 102, "ethereum", 12);
+
+        double[][] prices = history.getAlignedPrices(Arrays.asList("ethereum", "bitcoin"), 10);
+
+        assertArrayEquals(new double[] {10, 11, 12}, prices[0], EPSILON);
+        assertArrayEquals(new double[] {100, 101, 102}, prices[1], EPSILON);
+        assertEquals(3, history.getVersion());
+    }
+
+    @Test
+    public void stopsAtTheLatestSnapshotMissingASymbol() {
+        record("bitcoin", 100, "ethereum", 10);
+        record("bitcoin", 101);
+        record("bitcoin", 102, "ethereum", 12);
+        record("bitcoin", 103, "ethereum", 13);
+
+        double[][] prices = history.getAlignedPrices(Arrays.asList("bitcoin", "ethereum"), 10);
+
+        assertArrayEquals(new double[] {102, 103}, prices[0], EPSILON);
+        assertArrayEquals(new double[] {12, 13}, prices[1], EPSILON);
+        assertArrayEquals(new double[] {100, 101, 102, 103}, history.getPrices("bitcoin", 10), EPSILON);
+    }
+
+    @Test
+    public void returnsNothingForASymbolWithoutHistory() {
+        record("bitcoin", 100);
+        record("bitcoin", 101);
+
+        assertEquals(0, history.getPrices("solana", 10).length);
+        double[][] prices = history.getAlignedPrices(Arrays.asList("bitcoin", "solana"), 10);
+        assertEquals(0, prices[0].length);
+        assertEquals(0, prices[1].length);
+    }
+
+    @Test
+    public void keepsOnlyTheLatestSnapshotsAcrossTheWrap() {
+        for (int i = 0; i < 6; i++) {
+            record("bitcoin", 100 + i);
+        }
+
+        assertArrayEquals(new double[] {102, 103, 104, 105}, history.getPrices("bitcoin", 10), EPSILON);
+        assertArrayEquals(new double[] {104, 105}, history.getPrices("bitcoin", 2), EPSILON);
+    }
+
+    private void record(Object... symbolsAndPrices) {
+        Map<String, Double> snapshot = new HashMap<>();
+        for (int i = 0; i < symbolsAndPrices.length; i += 2) {
+            snapshot.put((String) symbolsAndPrices[i], ((Number) symbolsAndPrices[i + 1]).doubleValue());
+        }
+        history.record(snapshot);
+    }
+}
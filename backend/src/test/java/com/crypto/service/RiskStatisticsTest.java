@@ -0,0 +1,78 @@
+package com.crypto.service;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Fixtures are small enough to check by hand; the expected values are worked out in the comments.
+ */
+public class RiskStatisticsTest {
+
+    private static final double EPSILON = 1e-9;
+
+    @Test
+    public void logReturnsBetweenConsecutivePrices() {
+        assertArrayEquals(new double[] {Math.log(1.1), Math.log(0.9)},
+                RiskStatistics.logReturns(new double[] {100, 110, 99}), EPSILON);
+        assertEquals(0, RiskStatistics.logReturns(new double[] {100}).length);
+        assertEquals(0, RiskStatistics.logReturns(new double[0]).length);
+    }
+
+    @Test
+    public void sampleVariance() {
+        double[] values = {1, 2, 3, 4};
+        // Mean 2.5; squared deviations 2.25 + 0.25 + 0.25 + 2.25 = 5, sample variance 5 / 3
+        assertEquals(2.5, RiskStatistics.mean(values), EPSILON);
+        double deviation = RiskStatistics.standardDeviation(values, 2.5);
+        assertEquals(5.0 / 3, deviation * deviation, EPSILON);
+
+        assertEquals(0, RiskStatistics.mean(new double[0]), EPSILON);
+        assertEquals(0, RiskStatistics.standardDeviation(new double[] {7}, 7), EPSILON);
+    }
+
+    @Test
+    public void correlationFromSampleCovariance() {
+        double[] x = {1, 2, 3, 4};
+        double sd = Math.sqrt(5.0 / 3);
+
+        // Deviations of y: -1.5, 0.5, -0.5, 1.5; covariance (2.25 - 0.25 - 0.25 + 2.25) / 3 = 4 / 3,
+        // so the correlation is (4 / 3) / (5 / 3) = 0.8
+        assertEquals(0.8, RiskStatistics.correlation(x, 2.5, sd, new double[] {1, 3, 2, 4}, 2.5, sd), EPSILON);
+        assertEquals(1, RiskStatistics.correlation(x, 2.5, sd, new double[] {2, 4, 6, 8}, 5, 2 * sd), EPSILON);
+        assertEquals(-1, RiskStatistics.correlation(x, 2.5, sd, new double[] {4, 3, 2, 1}, 2.5, sd), EPSILON);
+
+        // A flat series has no defined correlation; it is reported as 0
+        assertEquals(0, RiskStatistics.correlation(x, 2.5, sd, new double[] {5, 5, 5, 5}, 5, 0), EPSILON);
+    }
+
+    @Test
+    public void historicalVaRReadsTheLossQuantile() {
+        double[] returns = {0.03, -0.05, 0.01, 0.06, -0.01, 0.0, 0.02, -0.03, 0.05, 0.04};
+        // Sorted: -0.05, -0.03, -0.01, 0, ... ; 10% of 10 observations is index 1, 5% is index 0
+        assertEquals(0.03, RiskStatistics.historicalVaR(returns, 0.90), EPSILON);
+        assertEquals(0.05, RiskStatistics.historicalVaR(returns, 0.95), EPSILON);
+        // 30% of 10 is index 3, a zero return
+        assertEquals(0, RiskStatistics.historicalVaR(returns, 0.70), EPSILON);
+
+        // No losses means no value at risk
+        assertEquals(0, RiskStatistics.historicalVaR(new double[] {0.01, 0.02}, 0.95), EPSILON);
+        assertEquals(0, RiskStatistics.historicalVaR(new double[0], 0.95), EPSILON);
+    }
+
+    @Test
+    public void parametricVaRUsesTheNormalQuantile() {
+        // z(0.95) = 1.6448536270; 1.6448536270 * 0.02 - 0.001
+        assertEquals(0.031897072540, RiskStatistics.parametricVaR(0.001, 0.02, 0.95), 1e-8);
+        assertEquals(0, RiskStatistics.parametricVaR(0.05, 0.01, 0.95), EPSILON);
+    }
+
+    @Test
+    public void inverseNormalMatchesTables() {
+        assertEquals(0, RiskStatistics.inverseNormal(0.5), 1e-8);
+        assertEquals(1.959963985, RiskStatistics.inverseNormal(0.975), 1e-8);
+        assertEquals(-2.326347874, RiskStatistics.inverseNormal(0.01), 1e-8);
+        assertEquals(3.090232306, RiskStatistics.inverseNormal(0.999), 1e-8);
+    }
+}
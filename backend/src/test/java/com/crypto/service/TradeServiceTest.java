@@ -0,0 +1,123 @@
+package com.crypto.service;
+
+import com.crypto.dto.TradeRequest;
+import com.crypto.model.Trade;
+import com.crypto.repository.TradeRepository;
+import com.github.benmanes.caffeine.cache.Cache;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnitRunner;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.math.BigDecimal;
+import java.util.Random;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * How the pre-trade reservation is settled when a trade fails part way through execution.
+ */
+@RunWith(MockitoJUnitRunner.class)
+public class TradeServiceTest {
+
+    @Mock
+    private TradeRepository tradeRepository;
+
+    @Mock
+    private PortfolioService portfolioService;
+
+    @Mock
+    private PreTradeRiskService preTradeRiskService;
+
+    @Mock
+    private ChangeLogService changeLogService;
+
+    @Mock
+    private TradeArchiveService tradeArchiveService;
+
+    @Mock
+    private Cache<String, CompletableFuture<Trade>> tradeIdempotencyCache;
+
+    @InjectMocks
+    private TradeService tradeService;
+
+    @Test
+    public void keepsTheReservationWhenTheHoldingWasAlreadyUpdated() {
+        executionSucceeds(true);
+        when(tradeRepository.save(any(Trade.class)))
+                .thenAnswer(invocation -> withId(invocation.getArgument(0)))
+                .thenThrow(new IllegalStateException("trade save failed"));
+
+        submitExpectingFailure();
+
+        // The holding is reduced in the database, so handing the quantity back would count it twice
+        verify(preTradeRiskService).onTradeCompleted(any(Trade.class));
+        verify(preTradeRiskService, never()).onTradeFailed(any(Trade.class));
+    }
+
+    @Test
+    public void refundsTheReservationWhenTheHoldingWasNotUpdated() {
+        executionSucceeds(true);
+        when(tradeRepository.save(any(Trade.class))).thenAnswer(invocation -> withId(invocation.getArgument(0)));
+        doThrow(new IllegalStateException("holding update failed"))
+                .when(portfolioService).updatePortfolioFromTrade(any(Trade.class));
+
+        submitExpectingFailure();
+
+        verify(preTradeRiskService).onTradeFailed(any(Trade.class));
+        verify(preTradeRiskService, never()).onTradeCompleted(any(Trade.class));
+    }
+
+    @Test
+    public void refundsTheReservationOfAFailedExecution() {
+        executionSucceeds(false);
+        when(tradeRepository.save(any(Trade.class))).thenAnswer(invocation -> withId(invocation.getArgument(0)));
+
+        Trade trade = tradeService.createTrade(sell());
+
+        assertEquals(Trade.TradeStatus.FAILED, trade.getStatus());
+        verify(portfolioService, never()).updatePortfolioFromTrade(any(Trade.class));
+        verify(preTradeRiskService).onTradeFailed(trade);
+        verify(preTradeRiskService, never()).onTradeCompleted(any(Trade.class));
+    }
+
+    private void submitExpectingFailure() {
+        try {
+            tradeService.createTrade(sell());
+            fail("Expected the trade to fail");
+        } catch (IllegalStateException expected) {
+            // Rethrown to the caller after the reservation is settled
+        }
+        verify(preTradeRiskService).checkAndReserve(any(TradeRequest.class));
+    }
+
+    // Execution succeeds 90% of the time; pin the draw to one side
+    private void executionSucceeds(boolean succeeds) {
+        ReflectionTestUtils.setField(tradeService, "random", new Random() {
+            @Override
+            public double nextDouble() {
+                return succeeds ? 0 : 0.99;
+            }
+        });
+    }
+
+    private static TradeRequest sell() {
+        return new TradeRequest("bitcoin", Trade.TradeType.SELL, new BigDecimal("0.5"), new BigDecimal("43000"));
+    }
+
+    private static Trade withId(Trade trade) {
+        if (trade.getId() == null) {
+            trade.setId(1L);
+        }
+        return trade;
+    }
+}
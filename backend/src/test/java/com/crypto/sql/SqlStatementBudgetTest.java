@@ -0,0 +1,204 @@
+package com.crypto.sql;
+
+import com.crypto.alert.PriceAlert;
+import com.crypto.dto.AlertRequest;
+import com.crypto.dto.TradeRequest;
+import com.crypto.model.Trade;
+import com.crypto.repository.TradeRepository;
+import com.crypto.service.CryptocurrencyService;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.context.annotation.Bean;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.junit4.SpringRunner;
+
+import java.math.BigDecimal;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * SQL statement budget per endpoint. Read endpoints are called twice, so both the cold and the
+ * cached path must fit, and no request may run the same SELECT twice (the N+1 pattern) or go over
+ * its budget of selects, inserts, updates, deletes and JDBC batches. A new repository call on a
+ * request path fails the build here instead of showing up as load in production.
+ */
+@RunWith(SpringRunner.class)
+@ActiveProfiles("dev")
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "spring.datasource.url=jdbc:h2:mem:sqlbudget",
+        "trading.prices.persist-interval-ms=3600000"
+})
+public class SqlStatementBudgetTest {
+
+    @TestConfiguration
+    static class RecorderConfig {
+        @Bean
+        static SqlStatementRecorder sqlStatementRecorder() {
+            return new SqlStatementRecorder();
+        }
+    }
+
+    @Autowired
+    private SqlStatementRecorder recorder;
+
+    @Autowired
+    private TestRestTemplate restTemplate;
+
+    @Autowired
+    private CryptocurrencyService cryptocurrencyService;
+
+    @Autowired
+    private TradeRepository tradeRepository;
+
+    @Test
+    public void readEndpointsStayWithinBudget() {
+        for (int run = 0; run < 2; run++) {
+            // Quotes are served from memory
+            assertReadBudget("/api/v3/simple/price?ids=bitcoin,ethereum&vs_currencies=usd", 0);
+            assertReadBudget("/api/v3/price/bitcoin", 0);
+            assertReadBudget("/api/v3/cryptocurrencies", 1);
+
+            assertReadBudget("/api/portfolio", 1);
+            assertReadBudget("/api/portfolio?since=0", 1);
+            assertReadBudget("/api/portfolio/total-value", 1);
+            assertReadBudget("/api/portfolio/bitcoin", 1);
+            assertReadBudget("/api/portfolio/analytics", 1);
+
+            assertReadBudget("/api/trades", 1);
+            assertReadBudget("/api/trades/recent", 1);
+            assertReadBudget("/api/trades/recent?since=0", 1);
+            assertReadBudget("/api/trades/1", 1);
+            assertReadBudget("/api/trades/symbol/bitcoin", 1);
+
+            // Holdings, total value (both from the portfolio query) and recent trades
+            assertReadBudget("/api/dashboard/overview", 2);
+
+            assertReadBudget("/api/alerts", 0);
+            assertReadBudget("/api/alerts/notifications", 0);
+
+            assertReadBudget("/api/metrics/admission", 0);
+            assertReadBudget("/api/metrics/cache", 0);
+            assertReadBudget("/api/metrics/coalescing", 0);
+            // Hot trade count
+            assertReadBudget("/api/metrics/archive", 1);
+        }
+    }
+
+    @Test
+    public void createTradeStaysWithinBudget() {
+        BigDecimal price = cryptocurrencyService.getLatestPrice("bitcoin");
+        TradeRequest request = new TradeRequest("bitcoin", Trade.TradeType.BUY, new BigDecimal("0.01"), price);
+
+        SqlStatementCounts counts = recorder.start();
+        ResponseEntity<String> response = restTemplate.exchange(
+                "/api/trades", HttpMethod.POST, new HttpEntity<>(request), String.class);
+
+        assertTrue("POST /api/trades returned " + response.getStatusCode(), response.getStatusCode().is2xxSuccessful());
+        // Risk positions on first use, the holding, and the trade reloaded to record its final status
+        assertBudget("POST /api/trades", counts, 3, 2, 2, 0, 0);
+    }
+
+    @Test
+    public void sellTradeStaysWithinBudget() {
+        BigDecimal price = cryptocurrencyService.getLatestPrice("bitcoin");
+        TradeRequest request = new TradeRequest("bitcoin", Trade.TradeType.SELL, new BigDecimal("0.01"), price);
+
+        SqlStatementCounts counts = recorder.start();
+        ResponseEntity<String> response = restTemplate.exchange(
+                "/api/trades", HttpMethod.POST, new HttpEntity<>(request), String.class);
+
+        assertTrue("POST /api/trades (SELL) returned " + response.getStatusCode(), response.getStatusCode().is2xxSuccessful());
+        // Same shape as a buy, but the holding always exists, so it is only updated
+        assertBudget("POST /api/trades (SELL)", counts, 3, 1, 2, 0, 0);
+    }
+
+    @Test
+    public void idempotentReplayRunsNoStatements() {
+        BigDecimal price = cryptocurrencyService.getLatestPrice("ethereum");
+        TradeRequest request = new TradeRequest("ethereum", Trade.TradeType.BUY, new BigDecimal("0.01"), price);
+        HttpHeaders headers = new HttpHeaders();
+        headers.set("Idempotency-Key", "budget-replay");
+        HttpEntity<TradeRequest> entity = new HttpEntity<>(request, headers);
+
+        ResponseEntity<String> first = restTemplate.exchange("/api/trades", HttpMethod.POST, entity, String.class);
+        assertTrue("first POST returned " + first.getStatusCode(), first.getStatusCode().is2xxSuccessful());
+
+        SqlStatementCounts counts = recorder.start();
+        ResponseEntity<String> replay = restTemplate.exchange("/api/trades", HttpMethod.POST, entity, String.class);
+
+        assertTrue("replayed POST returned " + replay.getStatusCode(), replay.getStatusCode().is2xxSuccessful());
+        // The original trade comes back from the in-memory key cache
+        assertBudget("POST /api/trades (replay)", counts, 0, 0, 0, 0, 0);
+    }
+
+    @Test
+    public void cancelTradeStaysWithinBudget() {
+        Trade pending = new Trade("cardano", Trade.TradeType.BUY, new BigDecimal("10"), new BigDecimal("0.50"));
+        Long id = tradeRepository.save(pending).getId();
+
+        SqlStatementCounts counts = recorder.start();
+        ResponseEntity<String> response = restTemplate.exchange(
+                "/api/trades/" + id + "/cancel", HttpMethod.PUT, null, String.class);
+
+        assertTrue("PUT /api/trades/{id}/cancel returned " + response.getStatusCode(), response.getStatusCode().is2xxSuccessful());
+        // One conditional update, then the cancelled trade is read back
+        assertBudget("PUT /api/trades/{id}/cancel", counts, 1, 0, 1, 0, 0);
+    }
+
+    @Test
+    public void alertsRunNoStatements() {
+        AlertRequest request = new AlertRequest();
+        request.setSymbol("bitcoin");
+        request.setCondition(PriceAlert.Condition.ABOVE);
+        request.setThreshold(new BigDecimal("1000000"));
+
+        SqlStatementCounts counts = recorder.start();
+        ResponseEntity<PriceAlert> created = restTemplate.postForEntity("/api/alerts", request, PriceAlert.class);
+        assertTrue("POST /api/alerts returned " + created.getStatusCode(), created.getStatusCode().is2xxSuccessful());
+        assertBudget("POST /api/alerts", counts, 0, 0, 0, 0, 0);
+
+        counts = recorder.start();
+        ResponseEntity<Void> deleted = restTemplate.exchange(
+                "/api/alerts/" + created.getBody().getId(), HttpMethod.DELETE, null, Void.class);
+        assertEquals(204, deleted.getStatusCodeValue());
+        assertBudget("DELETE /api/alerts/{id}", counts, 0, 0, 0, 0, 0);
+    }
+
+    @Test
+    public void manualArchiveRunStaysWithinBudget() {
+        SqlStatementCounts counts = recorder.start();
+        ResponseEntity<String> response = restTemplate.postForEntity("/api/metrics/archive", null, String.class);
+
+        assertTrue("POST /api/metrics/archive returned " + response.getStatusCode(), response.getStatusCode().is2xxSuccessful());
+        // Nothing is old enough to archive: the settled-trade page and the hot trade count
+        assertBudget("POST /api/metrics/archive", counts, 2, 0, 0, 0, 0);
+    }
+
+    private void assertReadBudget(String path, int maxSelects) {
+        SqlStatementCounts counts = recorder.start();
+        ResponseEntity<String> response = restTemplate.getForEntity(path, String.class);
+
+        assertTrue("GET " + path + " returned " + response.getStatusCode(), response.getStatusCode().is2xxSuccessful());
+        assertBudget("GET " + path, counts, maxSelects, 0, 0, 0, 0);
+    }
+
+    private static void assertBudget(String request, SqlStatementCounts counts, int maxSelects,
+                                     int maxInserts, int maxUpdates, int maxDeletes, int maxBatches) {
+        String message = request + " ran " + counts;
+        assertTrue(message, counts.getMaxSelectRepeats() <= 1);
+        assertTrue(message, counts.getSelects() <= maxSelects);
+        assertTrue(message, counts.getInserts() <= maxInserts);
+        assertTrue(message, counts.getUpdates() <= maxUpdates);
+        assertTrue(message, counts.getDeletes() <= maxDeletes);
+        assertTrue(message, counts.getBatches() <= maxBatches);
+    }
+}
@@ -0,0 +1,93 @@
+package com.crypto.sql;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Pattern;
+
+/**
+ * Statements executed against the database while handling one request. A JDBC batch counts
+ * once as a batch, not as one insert, update or delete per row.
+ */
+public class SqlStatementCounts {
+
+    private final AtomicInteger selects = new AtomicInteger();
+    private final AtomicInteger inserts = new AtomicInteger();
+    private final AtomicInteger updates = new AtomicInteger();
+    private final AtomicInteger deletes = new AtomicInteger();
+    private final AtomicInteger batches = new AtomicInteger();
+
+    // Executions per distinct SELECT text; one text run many times is the N+1 signature
+    private final Map<String, AtomicInteger> selectRepeats = new ConcurrentHashMap<>();
+
+    void record(String sql) {
+        String statement = sql.trim();
+        String verb = statement.length() >= 6 ? statement.substring(0, 6).toLowerCase() : "";
+        switch (verb) {
+            case "select":
+                selects.incrementAndGet();
+                selectRepeats.computeIfAbsent(statement, s -> new AtomicInteger()).incrementAndGet();
+                break;
+            case "insert":
+                inserts.incrementAndGet();
+                break;
+            case "update":
+                updates.incrementAndGet();
+                break;
+            case "delete":
+                deletes.incrementAndGet();
+                break;
+            default:
+                break;
+        }
+    }
+
+    void recordBatch() {
+        batches.incrementAndGet();
+    }
+
+    public int getSelects() { return selects.get(); }
+
+    public int getInserts() { return inserts.get(); }
+
+    public int getUpdates() { return updates.get(); }
+
+    public int getDeletes() { return deletes.get(); }
+
+    public int getBatches() { return batches.get(); }
+
+    /**
+     * SELECTs that read the given table, directly or through a join.
+     */
+    public int getSelects(String table) {
+        Pattern reads = Pattern.compile("\\b(from|join)\\s+" + Pattern.quote(table) + "\\b", Pattern.CASE_INSENSITIVE);
+        int count = 0;
+        for (Map.Entry<String, AtomicInteger> select : selectRepeats.entrySet()) {
+            if (reads.matcher(select.getKey()).find()) {
+                count += select.getValue().get();
+            }
+        }
+        return count;
+    }
+
+    public int getWrites() {
+        return getInserts() + getUpdates() + getDeletes() + getBatches();
+    }
+
+    /**
+     * Highest number of times a single SELECT statement ran.
+     */
+    public int getMaxSelectRepeats() {
+        int max = 0;
+        for (AtomicInteger repeats : selectRepeats.values()) {
+            max = Math.max(max, repeats.get());
+        }
+        return max;
+    }
+
+    @Override
+    public String toString() {
+        return selects + " selects (same text at most " + getMaxSelectRepeats() + " times), " + inserts
+                + " inserts, " + updates + " updates, " + deletes + " deletes, " + batches + " batches";
+    }
+}
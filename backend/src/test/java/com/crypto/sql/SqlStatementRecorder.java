@@ -0,0 +1,80 @@
+package com.crypto.sql;
+
+import org.springframework.beans.factory.config.BeanPostProcessor;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.Statement;
+
+/**
+ * Wraps the application's DataSource and counts every statement executed through it. Counts are
+ * global rather than per thread, so tests issue one request at a time and call {@link #start()}
+ * before each; scheduled jobs must not run during the measurement.
+ */
+public class SqlStatementRecorder implements BeanPostProcessor {
+
+    private volatile SqlStatementCounts current = new SqlStatementCounts();
+
+    /**
+     * Starts a new count and returns it; statements run after this call are added to it.
+     */
+    public SqlStatementCounts start() {
+        SqlStatementCounts counts = new SqlStatementCounts();
+        current = counts;
+        return counts;
+    }
+
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) {
+        if (bean instanceof DataSource) {
+            return proxy(DataSource.class, bean, (target, method, args) -> {
+                Object result = invoke(target, method, args);
+                return result instanceof Connection ? proxy(Connection.class, result, this::onConnection) : result;
+            });
+        }
+        return bean;
+    }
+
+    private Object onConnection(Object connection, Method method, Object[] args) throws Throwable {
+        Object result = invoke(connection, method, args);
+        if (!(result instanceof Statement)) {
+            return result;
+        }
+        // prepareStatement and prepareCall carry the SQL up front, createStatement passes it on execute
+        String preparedSql = args != null && args.length > 0 && args[0] instanceof String ? (String) args[0] : null;
+        return proxy(method.getReturnType(), result, (statement, call, callArgs) -> {
+            String name = call.getName();
+            if (name.equals("executeBatch") || name.equals("executeLargeBatch")) {
+                current.recordBatch();
+            } else if (name.startsWith("execute")) {
+                String sql = callArgs != null && callArgs.length > 0 && callArgs[0] instanceof String
+                        ? (String) callArgs[0] : preparedSql;
+                if (sql != null) {
+                    current.record(sql);
+                }
+            }
+            return invoke(statement, call, callArgs);
+        });
+    }
+
+    private interface Handler {
+        Object handle(Object target, Method method, Object[] args) throws Throwable;
+    }
+
+    private static Object proxy(Class<?> type, Object target, Handler handler) {
+        InvocationHandler invocationHandler = (proxy, method, args) -> handler.handle(target, method, args);
+        return Proxy.newProxyInstance(SqlStatementRecorder.class.getClassLoader(), new Class<?>[] {type}, invocationHandler);
+    }
+
+    private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+}